@@ -1,40 +1,202 @@
 package com.lc.redblacktree;
 
-import java.util.List;
-import java.util.Scanner;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Random;
 
 /**
- * 测试类
+ * 回放操作日志的命令行工具，用于离线重现线上的性能问题
+ * *****run &lt;log&gt; [engine] [fpr] [expectedKeys]：内存映射读取操作日志并依次作用到指定的引擎上，
+ * 输出吞吐量、每种操作的延迟分位数、GC次数和耗时、分配的字节数，以及回放结束时树的形状（高度、黑高度、节点数）；
+ * engine见{@link TreeEngines#NAMES}，默认bottom-up，fpr非空时附加该误判率的{@link CountingBloomFilter}，
+ * 过滤器按expectedKeys个key确定大小，未指定时回放之前先扫描一遍日志，取INSERT中不同key的个数（树中同时存在的key不会超过它）；
+ * *****generate &lt;log&gt; &lt;ops&gt; &lt;keyRange&gt; &lt;insert%&gt; &lt;delete%&gt; &lt;get%&gt; [rangeWidth] [seed]：生成随机操作日志，剩余比例为range。
+ * 日志格式见{@link OpLog}，线上可以用{@link OpLogWriter}记录真实的操作序列
  *
  * @author lc
  */
 public class App {
-    public static void main(String[] args) {
-        RedBlackTree tree = new RedBlackTree();
-        /**
-         * 插入13 6 4 15 3 89 1 0
-         */
-        tree.insert(13);
-        tree.insert(8);
-        tree.insert(17);
-        tree.insert(1);
-        tree.insert(11);
-        tree.insert(15);
-        tree.insert(25);
-        tree.insert(6);
-        tree.insert(22);
-        tree.insert(27);
-        System.out.println(tree.getHeight());
-        List<Integer> data = tree.inOrder();
-        System.out.println(data.toString());
-        tree.BFSPrint();
-        Scanner in = new Scanner(System.in);
-        int va;
-        do {
-            System.out.println("\n************************************");
-            va = in.nextInt();
-            tree.delete(va);
-            tree.BFSPrint();
-        } while (true);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && "run".equals(args[0])) {
+            run(args[1], args.length > 2 ? args[2] : "bottom-up", args.length > 3 ? args[3] : null, args.length > 4 ? args[4] : null);
+        } else if (args.length >= 7 && "generate".equals(args[0])) {
+            generate(args);
+        } else {
+            usage();
+        }
+    }
+
+    private static void usage() {
+        System.out.println("usage:");
+        System.out.println("  run <log> [engine] [fpr] [expectedKeys]   engine: " + String.join("|", TreeEngines.NAMES));
+        System.out.println("  generate <log> <ops> <keyRange> <insert%> <delete%> <get%> [rangeWidth] [seed]");
+    }
+
+    /*********回放*******/
+    private static void run(String path, String engineName, String fpr, String expectedKeys) throws IOException {
+        CountingBloomFilter filter = null;
+        int keys = 0;
+        if (fpr != null) {
+            keys = expectedKeys != null ? Integer.parseInt(expectedKeys) : distinctInsertKeys(path);
+            filter = new CountingBloomFilter(keys, Double.parseDouble(fpr));
+        }
+        try (OpLogReader reader = new OpLogReader(path)) {
+            TreeEngine engine = TreeEngines.create(engineName, filter);
+            LatencyHistogram[] histograms = new LatencyHistogram[OpLog.NAMES.length];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+
+            long gcCountBefore = gcCount();
+            long gcTimeBefore = gcTime();
+            long allocatedBefore = allocatedBytes();
+            long checksum = 0;
+            long start = System.nanoTime();
+            while (reader.next()) {
+                byte op = reader.getOp();
+                int value = reader.getValue();
+                long begin = System.nanoTime();
+                switch (op) {
+                    case OpLog.INSERT:
+                        checksum += engine.insert(value) ? 1 : 0;
+                        break;
+                    case OpLog.DELETE:
+                        checksum += engine.delete(value) ? 1 : 0;
+                        break;
+                    case OpLog.GET:
+                        checksum += engine.contains(value) ? 1 : 0;
+                        break;
+                    default:
+                        checksum += engine.range(value, reader.getArgument());
+                        break;
+                }
+                histograms[op].record(System.nanoTime() - begin);
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocatedAfter = allocatedBytes();
+
+            System.out.println("log:          " + path + " (" + reader.getRecords() + " ops)");
+            System.out.println("engine:       " + engineName + (filter == null ? "" : " with filter fpr " + fpr + ", " + keys + " expected keys"
+                    + (expectedKeys == null ? " (distinct inserted keys in the log)" : "") + ", " + filter.getMemoryBytes() / 1024 + " KB"));
+            System.out.println("elapsed:      " + elapsed / 1000000 + " ms");
+            System.out.println("throughput:   " + (long) (reader.getRecords() / (elapsed / 1e9)) + " ops/s");
+            System.out.println("checksum:     " + checksum);
+            System.out.println(String.format("%-8s %10s %10s %10s %10s %10s %10s %10s", "op", "count", "mean ns", "p50", "p90", "p99", "p99.9", "max"));
+            for (int i = 0; i < histograms.length; i++) {
+                LatencyHistogram histogram = histograms[i];
+                if (histogram.getCount() == 0) {
+                    continue;
+                }
+                StringBuilder line = new StringBuilder(String.format("%-8s %10d %10.0f", OpLog.NAMES[i], histogram.getCount(), histogram.getMean()));
+                for (double percentile : PERCENTILES) {
+                    line.append(String.format(" %10d", histogram.getPercentile(percentile)));
+                }
+                line.append(String.format(" %10d", histogram.getMax()));
+                System.out.println(line);
+            }
+            System.out.println("gc:           " + (gcCount() - gcCountBefore) + " collections, " + (gcTime() - gcTimeBefore) + " ms");
+            System.out.println("allocated:    " + (allocatedBefore < 0 ? "unavailable" : (allocatedAfter - allocatedBefore) / 1024 + " KB"));
+            System.out.println("tree:         size " + engine.size() + ", height " + engine.height() + ", black height " + engine.blackHeight());
+        }
+    }
+
+    /**
+     * 扫描一遍日志，统计INSERT中不同key的个数，用于确定过滤器的大小
+     * 每个INSERT占4字节内存，日志过大时应直接指定expectedKeys
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    private static int distinctInsertKeys(String path) throws IOException {
+        int[] keys = new int[1024];
+        int count = 0;
+        try (OpLogReader reader = new OpLogReader(path)) {
+            while (reader.next()) {
+                if (reader.getOp() == OpLog.INSERT) {
+                    if (count == keys.length) {
+                        if (count == Integer.MAX_VALUE - 8) {
+                            throw new IllegalArgumentException("too many inserts to count distinct keys, pass expectedKeys instead");
+                        }
+                        keys = Arrays.copyOf(keys, (int) Math.min(Integer.MAX_VALUE - 8, count * 2L));
+                    }
+                    keys[count++] = reader.getValue();
+                }
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * 当前线程累计分配的字节数，只有HotSpot等提供com.sun.management扩展的JVM支持
+     *
+     * @return 不支持时返回-1
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /*********生成*******/
+    private static void generate(String[] args) throws IOException {
+        String path = args[1];
+        long ops = Long.parseLong(args[2]);
+        int keyRange = Integer.parseInt(args[3]);
+        int insertPercent = Integer.parseInt(args[4]);
+        int deletePercent = Integer.parseInt(args[5]);
+        int getPercent = Integer.parseInt(args[6]);
+        int rangeWidth = args.length > 7 ? Integer.parseInt(args[7]) : Math.max(1, keyRange / 1000);
+        long seed = args.length > 8 ? Long.parseLong(args[8]) : 42;
+        if (insertPercent + deletePercent + getPercent > 100) {
+            throw new IllegalArgumentException("insert% + delete% + get% must not exceed 100");
+        }
+        Random random = new Random(seed);
+        try (OpLogWriter writer = new OpLogWriter(path)) {
+            for (long i = 0; i < ops; i++) {
+                int value = random.nextInt(keyRange);
+                int op = random.nextInt(100);
+                if (op < insertPercent) {
+                    writer.insert(value);
+                } else if (op < insertPercent + deletePercent) {
+                    writer.delete(value);
+                } else if (op < insertPercent + deletePercent + getPercent) {
+                    writer.get(value);
+                } else {
+                    writer.range(value, value + rangeWidth);
+                }
+            }
+        }
+        System.out.println("generated " + ops + " ops to " + path);
     }
 }
@@ -0,0 +1,18 @@
+package com.lc.redblacktree;
+
+/**
+ * 节点增强（augmentation）钩子
+ * 每个节点通过{@link TreeNode#getAggregate()}保存一份以该节点为根的子树的聚合数据，
+ * 红黑树在插入、删除、旋转改变了某个节点的子树之后调用update，由实现类重新计算该节点的aggregate
+ *
+ * @author lc
+ */
+public interface Augmentation {
+    /**
+     * 根据节点自身的value（以及aggregate中跟value绑定的数据）和左右子节点的aggregate重新计算该节点的aggregate
+     * 调用时左右子节点的aggregate已经是最新的；新插入节点的aggregate为null，需要在此创建
+     *
+     * @param current 非null
+     */
+    void update(TreeNode current);
+}
@@ -0,0 +1,223 @@
+package com.lc.redblacktree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 树修改事件的环形缓冲区，单生产者（修改树的线程）、多消费者
+ * *****每次insert/delete成功后发布一个事件，树的版本号加1，版本号即事件的序号（第一个事件版本号为1）；
+ * *****事件的类型和value打包成一个long存放在AtomicLongArray中，发布时不创建对象，生产者写完槽位之后再写入cursor，消费者读到cursor之后槽位一定可见；
+ * *****每个{@link ChangeSubscription}记录自己已消费到的版本号，生产者覆盖槽位之前要等所有订阅者都消费过该槽位（背压），
+ * *****因此订阅者不再使用时必须close，否则生产者会一直等待；没有订阅者时生产者直接覆盖最旧的事件；
+ * *****deltaSince不需要订阅，直接读取缓冲区中保留的最近capacity个事件，被覆盖时返回null，调用方需要全量同步；
+ * *****deltaSince按集合语义合并同一个value的多次修改，不支持multiset的树，附加到multiset的树之后调用deltaSince会抛出IllegalStateException；
+ * *****为了让deltaSince发现读取期间被覆盖的槽位，生产者在写槽位之前先有序写入claimed，读者按获取语义读完槽位之后再读claimed。
+ *
+ * @author lc
+ */
+public class ChangeFeed {
+    /**
+     * 背压等待时先自旋的次数，之后让出CPU
+     */
+    private static final int SPIN_TRIES = 100;
+    private static final ChangeType[] TYPES = ChangeType.values();
+
+    private final int capacity;
+    private final int mask;
+    /**
+     * 高32位为ChangeType的ordinal，低32位为value
+     */
+    private final AtomicLongArray events;
+    /**
+     * 已发布的最大版本号
+     */
+    private final AtomicLong cursor = new AtomicLong(0);
+    /**
+     * 正在写入或已写入槽位的最大版本号，写槽位之前更新，总是等于cursor或cursor + 1
+     */
+    private final AtomicLong claimed = new AtomicLong(0);
+    private final CopyOnWriteArrayList<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    /**
+     * 生产者缓存的订阅者最小版本号，只由生产者访问，避免每次发布都遍历订阅者
+     */
+    private long gatingVersion;
+    /**
+     * 是否附加到过multiset的树，一旦标记不再取消，因为缓冲区中可能还有multiset的事件
+     */
+    private volatile boolean multiset;
+
+    /**
+     * @param capacity 缓冲区大小，必须是2的幂
+     */
+    public ChangeFeed(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("capacity must be a positive power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.events = new AtomicLongArray(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return 当前版本号，即已发布的事件个数
+     */
+    public long getVersion() {
+        return cursor.get();
+    }
+
+    /**
+     * 发布一个事件，只能由修改树的线程调用
+     * 缓冲区已满且有订阅者未消费最旧的事件时在此等待
+     *
+     * @param type
+     * @param value
+     */
+    public void publish(ChangeType type, int value) {
+        long version = cursor.get() + 1;
+        long wrapVersion = version - capacity;
+        if (wrapVersion > gatingVersion) {
+            gatingVersion = waitForSubscribers(wrapVersion);
+        }
+        /**
+         * lazySet是release写：claimed先于槽位可见，读者读到新的槽位时一定能读到新的claimed
+         */
+        claimed.lazySet(version);
+        events.lazySet((int) (version & mask), ((long) type.ordinal() << 32) | (value & 0xFFFFFFFFL));
+        /**
+         * cursor必须是volatile写，不能用lazySet：它与之后遍历订阅者的读之间需要StoreLoad屏障，与subscribe中先注册、再读cursor配对，见subscribe
+         */
+        cursor.set(version);
+    }
+
+    /**
+     * 等待所有订阅者都消费到wrapVersion
+     *
+     * @param wrapVersion
+     * @return 订阅者中最小的已消费版本号
+     */
+    private long waitForSubscribers(long wrapVersion) {
+        int tries = 0;
+        while (true) {
+            long min = Long.MAX_VALUE;
+            for (ChangeSubscription subscription : subscriptions) {
+                min = Math.min(min, subscription.getVersion());
+            }
+            if (min >= wrapVersion) {
+                return min == Long.MAX_VALUE ? wrapVersion : min;
+            }
+            if (tries < SPIN_TRIES) {
+                tries++;
+            } else if (tries < SPIN_TRIES * 2) {
+                tries++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(1000L);
+            }
+        }
+    }
+
+    /**
+     * 从当前版本开始订阅，只能收到订阅之后发布的事件
+     * 先以当前版本注册，注册之后再读一次cursor作为起始版本c：注册之前生产者看不到该订阅者，可能已经覆盖了第一次读到的版本之后的槽位
+     * 生产者写cursor、订阅者注册都是volatile写，之后生产者遍历订阅者、订阅者读cursor都是volatile读，四者全序，因此：
+     * *****生产者某次遍历没有看到该订阅者，则该次遍历之前写入的cursor都已被订阅者读到，遍历得到的gatingVersion不超过其时的cursor，也就不超过c；
+     * *****生产者某次遍历看到了该订阅者，gatingVersion不超过该订阅者的版本，也就不超过c。
+     * 所以覆盖c + 1的槽位之前生产者一定会重新遍历，并且看到该订阅者
+     *
+     * @return
+     */
+    public ChangeSubscription subscribe() {
+        ChangeSubscription subscription = new ChangeSubscription(this, cursor.get());
+        subscriptions.add(subscription);
+        subscription.start(cursor.get());
+        return subscription;
+    }
+
+    /**
+     * 由multiset模式的{@link RedBlackTree}调用
+     */
+    void markMultiset() {
+        multiset = true;
+    }
+
+    public boolean isMultiset() {
+        return multiset;
+    }
+
+    void unsubscribe(ChangeSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    /**
+     * @param version
+     * @return 打包的事件，用typeOf、valueOf解析
+     */
+    long eventAt(long version) {
+        return events.get((int) (version & mask));
+    }
+
+    static ChangeType typeOf(long event) {
+        return TYPES[(int) (event >>> 32)];
+    }
+
+    static int valueOf(long event) {
+        return (int) event;
+    }
+
+    /**
+     * 获取从version之后到当前版本的修改汇总，O(修改数)
+     * 槽位按获取语义读取，读取完之后再检查claimed，如果期间生产者已经开始覆盖读过的槽位则结果无效
+     *
+     * @param version 副本已同步到的版本号
+     * @return 缓冲区中已不保留version之后的全部事件时返回null
+     * @throws IllegalStateException 附加到了multiset的树：同一个value的多次插入、删除不能按集合语义合并
+     */
+    public TreeDelta deltaSince(long version) {
+        if (multiset) {
+            throw new IllegalStateException("deltaSince merges changes with set semantics and does not support a multiset tree, replay events through subscribe() instead");
+        }
+        long toVersion = cursor.get();
+        if (version < 0 || version > toVersion) {
+            throw new IllegalArgumentException("version " + version + " is out of [0, " + toVersion + "]");
+        }
+        if (toVersion - version > capacity) {
+            return null;
+        }
+        Map<Integer, ChangeType> last = new HashMap<>();
+        for (long v = version + 1; v <= toVersion; v++) {
+            long event = eventAt(v);
+            last.put(valueOf(event), typeOf(event));
+        }
+        /**
+         * version + 1的槽位会被version + 1 + capacity覆盖
+         */
+        if (claimed.get() - version > capacity) {
+            return null;
+        }
+        int[] upserts = new int[last.size()];
+        int[] removals = new int[last.size()];
+        int upsertCount = 0;
+        int removalCount = 0;
+        for (Map.Entry<Integer, ChangeType> entry : last.entrySet()) {
+            if (entry.getValue() == ChangeType.INSERT) {
+                upserts[upsertCount++] = entry.getKey();
+            } else {
+                removals[removalCount++] = entry.getKey();
+            }
+        }
+        upserts = Arrays.copyOf(upserts, upsertCount);
+        removals = Arrays.copyOf(removals, removalCount);
+        Arrays.sort(upserts);
+        Arrays.sort(removals);
+        return new TreeDelta(version, toVersion, upserts, removals);
+    }
+}
@@ -0,0 +1,209 @@
+package com.lc.redblacktree;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link ChangeFeed}的并发自检，生产者线程随机修改一棵设置了changeFeed的{@link RedBlackTree}，同时：
+ * *****几个长期订阅者以不同的批大小逐个应用事件维护各自的副本，结束时副本必须与树一致，批大的订阅者紧跟生产者，使生产者缓存的gatingVersion接近cursor；
+ * *****两个线程不断地新建订阅、消费一小段之后close，每个订阅收到的事件必须从订阅时的版本开始连续，且与生产者记录的事件一致；
+ * *****一个线程不断地对最近的版本调用deltaSince，非null的结果必须与按生产者记录计算的汇总一致。
+ * 缓冲区很小，使背压、覆盖和deltaSince返回null都频繁发生
+ * 用法：ChangeFeedCheck [events] [capacity]，任一检查失败时抛出IllegalStateException
+ *
+ * @author lc
+ */
+public class ChangeFeedCheck {
+    private static final int KEY_RANGE = 512;
+    /**
+     * 每个长期订阅者每次poll的最大事件数
+     */
+    private static final int[] REPLICA_BATCHES = {16, 256, 1024, 4096};
+    private static final int LATE_SUBSCRIBERS = 2;
+
+    public static void main(String[] args) throws Exception {
+        final int events = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        final RedBlackTree tree = new RedBlackTree();
+        final ChangeFeed feed = new ChangeFeed(capacity);
+        tree.setChangeFeed(feed);
+        /**
+         * 生产者记录的事件，下标为版本号，结束之后才由其他线程读取
+         */
+        final int[] loggedValues = new int[events + 1];
+        final ChangeType[] loggedTypes = new ChangeType[events + 1];
+        final RuntimeException[] failures = new RuntimeException[REPLICA_BATCHES.length + LATE_SUBSCRIBERS + 1];
+        final List<TreeSet<Integer>> replicas = new ArrayList<>();
+        final List<List<long[]>> received = new ArrayList<>();
+        final List<TreeDelta> deltas = new ArrayList<>();
+        final AtomicBoolean done = new AtomicBoolean(false);
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Random random = new Random(1);
+                TreeSet<Integer> own = new TreeSet<>();
+                for (int version = 1; version <= events; ) {
+                    int value = random.nextInt(KEY_RANGE);
+                    if (own.add(value)) {
+                        tree.insert(value);
+                        loggedTypes[version] = ChangeType.INSERT;
+                    } else {
+                        own.remove(value);
+                        tree.delete(value);
+                        loggedTypes[version] = ChangeType.DELETE;
+                    }
+                    loggedValues[version++] = value;
+                }
+            }
+        });
+        List<Thread> consumers = new ArrayList<>();
+        for (int i = 0; i < REPLICA_BATCHES.length; i++) {
+            final int id = i;
+            final int maxBatch = REPLICA_BATCHES[i];
+            final ChangeSubscription subscription = feed.subscribe();
+            final TreeSet<Integer> replica = new TreeSet<>();
+            replicas.add(replica);
+            consumers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        ChangeListener listener = new ChangeListener() {
+                            @Override
+                            public void onChange(ChangeType type, int value, long version) {
+                                if (type == ChangeType.INSERT) {
+                                    TreeCheck.check(replica.add(value), "replica " + id + " insert " + value + " at " + version);
+                                } else {
+                                    TreeCheck.check(replica.remove(value), "replica " + id + " delete " + value + " at " + version);
+                                }
+                            }
+                        };
+                        while (subscription.getVersion() < events) {
+                            subscription.poll(listener, maxBatch);
+                        }
+                    } catch (RuntimeException e) {
+                        failures[id] = e;
+                    } finally {
+                        subscription.close();
+                    }
+                }
+            }));
+        }
+        List<Thread> lateSubscribers = new ArrayList<>();
+        for (int i = 0; i < LATE_SUBSCRIBERS; i++) {
+            final int id = REPLICA_BATCHES.length + i;
+            final List<long[]> own = new ArrayList<>();
+            received.add(own);
+            lateSubscribers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (!done.get()) {
+                            final ChangeSubscription subscription = feed.subscribe();
+                            final long start = subscription.getVersion();
+                            final long[] next = {start + 1};
+                            ChangeListener listener = new ChangeListener() {
+                                @Override
+                                public void onChange(ChangeType type, int value, long version) {
+                                    TreeCheck.check(version == next[0]++, "subscription starting at " + start + " skipped to " + version);
+                                    own.add(new long[]{version, type.ordinal(), value});
+                                }
+                            };
+                            for (int round = 0; round < 8 && !done.get(); round++) {
+                                subscription.poll(listener, 4);
+                            }
+                            subscription.close();
+                        }
+                    } catch (RuntimeException e) {
+                        failures[id] = e;
+                    }
+                }
+            }));
+        }
+        Thread deltaThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Random random = new Random(2);
+                    while (!done.get()) {
+                        long version = Math.max(0, feed.getVersion() - random.nextInt(feed.getCapacity() + 8));
+                        TreeDelta delta = feed.deltaSince(version);
+                        if (delta != null && deltas.size() < 100000) {
+                            deltas.add(delta);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    failures[failures.length - 1] = e;
+                }
+            }
+        });
+        for (Thread consumer : consumers) {
+            consumer.start();
+        }
+        for (Thread lateSubscriber : lateSubscribers) {
+            lateSubscriber.start();
+        }
+        deltaThread.start();
+        producer.start();
+        producer.join();
+        for (Thread consumer : consumers) {
+            consumer.join();
+        }
+        done.set(true);
+        for (Thread lateSubscriber : lateSubscribers) {
+            lateSubscriber.join();
+        }
+        deltaThread.join();
+        for (RuntimeException failure : failures) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        TreeCheck.check(feed.getVersion() == events, "version " + feed.getVersion());
+        int receivedCount = 0;
+        for (TreeSet<Integer> replica : replicas) {
+            TreeCheck.check(tree.inOrder().equals(new ArrayList<>(replica)), "replica differs from tree");
+        }
+        for (List<long[]> own : received) {
+            for (long[] event : own) {
+                int version = (int) event[0];
+                TreeCheck.check(loggedTypes[version].ordinal() == event[1] && loggedValues[version] == event[2], "subscription event at " + version);
+            }
+            receivedCount += own.size();
+        }
+        for (TreeDelta delta : deltas) {
+            checkDelta(delta, loggedTypes, loggedValues);
+        }
+        System.out.println("ChangeFeed ok, events " + events + ", capacity " + capacity + ", replicas " + replicas.size() + ", late subscription events " + receivedCount
+                + ", deltas " + deltas.size());
+    }
+
+    private static void checkDelta(TreeDelta delta, ChangeType[] loggedTypes, int[] loggedValues) {
+        Map<Integer, ChangeType> last = new HashMap<>();
+        for (long v = delta.getFromVersion() + 1; v <= delta.getToVersion(); v++) {
+            last.put(loggedValues[(int) v], loggedTypes[(int) v]);
+        }
+        TreeSet<Integer> upserts = new TreeSet<>();
+        TreeSet<Integer> removals = new TreeSet<>();
+        for (Map.Entry<Integer, ChangeType> entry : last.entrySet()) {
+            (entry.getValue() == ChangeType.INSERT ? upserts : removals).add(entry.getKey());
+        }
+        TreeCheck.check(toList(delta.getUpserts()).equals(new ArrayList<>(upserts))
+                && toList(delta.getRemovals()).equals(new ArrayList<>(removals)), "delta from " + delta.getFromVersion() + " to " + delta.getToVersion());
+    }
+
+    private static List<Integer> toList(int[] values) {
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,15 @@
+package com.lc.redblacktree;
+
+/**
+ * 修改事件的消费者回调，由{@link ChangeSubscription#poll(ChangeListener, int)}在消费者自己的线程中调用
+ *
+ * @author lc
+ */
+public interface ChangeListener {
+    /**
+     * @param type    修改类型
+     * @param value   被插入或删除的value
+     * @param version 该修改之后树的版本号
+     */
+    void onChange(ChangeType type, int value, long version);
+}
@@ -0,0 +1,72 @@
+package com.lc.redblacktree;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ChangeFeed}的一个订阅者，只能由一个消费者线程使用
+ * 消费者按自己的节奏调用poll批量取出事件，每批只更新一次已消费的版本号，生产者据此判断槽位能否被覆盖
+ *
+ * @author lc
+ */
+public class ChangeSubscription {
+    private final ChangeFeed feed;
+    /**
+     * 已消费到的版本号
+     */
+    private final AtomicLong version;
+
+    ChangeSubscription(ChangeFeed feed, long version) {
+        this.feed = feed;
+        this.version = new AtomicLong(version);
+    }
+
+    /**
+     * 注册之后设置起始版本号，只能向前移动
+     *
+     * @param version
+     */
+    void start(long version) {
+        this.version.set(version);
+    }
+
+    /**
+     * @return 已消费到的版本号
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @return 已发布但尚未消费的事件个数
+     */
+    public long getLag() {
+        return feed.getVersion() - version.get();
+    }
+
+    /**
+     * 将已发布的事件按顺序交给listener，最多maxBatch个，不等待
+     *
+     * @param listener
+     * @param maxBatch
+     * @return 本次处理的事件个数
+     */
+    public int poll(ChangeListener listener, int maxBatch) {
+        long current = version.get();
+        long end = Math.min(feed.getVersion(), current + maxBatch);
+        for (long v = current + 1; v <= end; v++) {
+            long event = feed.eventAt(v);
+            listener.onChange(ChangeFeed.typeOf(event), ChangeFeed.valueOf(event), v);
+        }
+        if (end > current) {
+            version.lazySet(end);
+        }
+        return (int) (end - current);
+    }
+
+    /**
+     * 取消订阅，之后生产者不再等待该订阅者
+     */
+    public void close() {
+        feed.unsubscribe(this);
+    }
+}
@@ -0,0 +1,17 @@
+package com.lc.redblacktree;
+
+/**
+ * 树的修改类型
+ * @author lc
+ */
+public enum ChangeType {
+    INSERT("insert"),DELETE("delete");
+    private String type;
+    ChangeType(String type){
+        this.type = type;
+    }
+
+    public String getType() {
+        return type;
+    }
+}
@@ -0,0 +1,228 @@
+package com.lc.redblacktree;
+
+import java.util.Arrays;
+
+/**
+ * 分块的计数布隆过滤器（blocked counting Bloom filter），用作红黑树查找前的否定过滤
+ * *****每个value只落在一个64字节的块（一条cache line）中，块内有128个4位计数器，value对应其中k个计数器；
+ * *****add将k个计数器加1，remove减1，因此支持删除；mightContain只要有一个计数器为0就说明value一定不存在；
+ * *****计数器达到15后不再增减（饱和），避免溢出造成漏判，代价是饱和的计数器永远非0，会略微提高误判率。
+ * 分块使一次查询只访问一条cache line，误判率比同样大小的普通布隆过滤器略高，构造时按目标误判率计算的大小已足够
+ *
+ * @author lc
+ */
+public class CountingBloomFilter {
+    /**
+     * 每个块8个long，即64字节
+     */
+    private static final int WORDS_PER_BLOCK = 8;
+    /**
+     * 每个块中4位计数器的个数
+     */
+    private static final int COUNTERS_PER_BLOCK = WORDS_PER_BLOCK * 16;
+    private static final int MAX_COUNT = 15;
+    /**
+     * 每个value使用的计数器个数上限，块内每个位置占7位hash，64位最多取8个
+     */
+    public static final int MAX_HASHES = 8;
+
+    private final long[] counters;
+    private final int blocks;
+    private final int hashes;
+
+    /**
+     * 根据预计元素个数和目标误判率创建
+     * m = -n * ln(p) / (ln2)^2 个计数器，k = m / n * ln2 个hash
+     *
+     * @param expectedInsertions 预计元素个数
+     * @param falsePositiveRate  目标误判率，(0, 1)
+     */
+    public CountingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        this(blocksFor(expectedInsertions, falsePositiveRate), hashesFor(expectedInsertions, falsePositiveRate));
+    }
+
+    /**
+     * 根据内存大小直接创建
+     *
+     * @param blocks 块个数，每块64字节
+     * @param hashes 每个value使用的计数器个数，[1, MAX_HASHES]
+     * @return
+     */
+    public static CountingBloomFilter ofBlocks(int blocks, int hashes) {
+        return new CountingBloomFilter(blocks, hashes);
+    }
+
+    private CountingBloomFilter(int blocks, int hashes) {
+        if (blocks <= 0) {
+            throw new IllegalArgumentException("blocks must be positive: " + blocks);
+        }
+        if (hashes < 1 || hashes > MAX_HASHES) {
+            throw new IllegalArgumentException("hashes must be in [1, " + MAX_HASHES + "]: " + hashes);
+        }
+        this.blocks = blocks;
+        this.hashes = hashes;
+        this.counters = new long[blocks * WORDS_PER_BLOCK];
+    }
+
+    /**
+     * 先按普通布隆过滤器的公式估算块数，再逐步增加块数直到分块之后的期望误判率不超过目标
+     *
+     * @param expectedInsertions
+     * @param falsePositiveRate
+     * @return
+     */
+    private static int blocksFor(int expectedInsertions, double falsePositiveRate) {
+        checkArguments(expectedInsertions, falsePositiveRate);
+        int n = Math.max(expectedInsertions, 1);
+        int hashes = hashesFor(expectedInsertions, falsePositiveRate);
+        double bits = -n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        double blocks = Math.max(1, Math.ceil(bits / COUNTERS_PER_BLOCK));
+        while (blocks < Integer.MAX_VALUE / WORDS_PER_BLOCK && expectedFalsePositiveRate(n / blocks, hashes) > falsePositiveRate) {
+            blocks = Math.ceil(blocks * 1.05);
+        }
+        return (int) Math.min(blocks, Integer.MAX_VALUE / WORDS_PER_BLOCK);
+    }
+
+    /**
+     * 分块布隆过滤器的期望误判率
+     * 每个块中的元素个数近似服从均值为load的泊松分布，块中有j个元素时误判率为(1 - (1 - 1/128)^(k*j))^k，按分布加权求和
+     * 块中元素个数的波动使分块的误判率明显高于同样大小的普通布隆过滤器，因此不能直接套用普通公式
+     *
+     * @param load   每个块的平均元素个数
+     * @param hashes
+     * @return
+     */
+    private static double expectedFalsePositiveRate(double load, int hashes) {
+        double result = 0;
+        double probability = Math.exp(-load);
+        int max = (int) (load + 10 * Math.sqrt(load) + 10);
+        for (int j = 0; j <= max; j++) {
+            if (j > 0) {
+                probability *= load / j;
+            }
+            double empty = Math.pow(1 - 1.0 / COUNTERS_PER_BLOCK, (double) hashes * j);
+            result += probability * Math.pow(1 - empty, hashes);
+        }
+        return result;
+    }
+
+    private static int hashesFor(int expectedInsertions, double falsePositiveRate) {
+        checkArguments(expectedInsertions, falsePositiveRate);
+        int k = (int) Math.round(-Math.log(falsePositiveRate) / Math.log(2));
+        return Math.min(MAX_HASHES, Math.max(1, k));
+    }
+
+    private static void checkArguments(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 0) {
+            throw new IllegalArgumentException("expectedInsertions must not be negative: " + expectedInsertions);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+    }
+
+    /**
+     * @param value
+     * @return false表示value一定不存在，true表示可能存在
+     */
+    public boolean mightContain(int value) {
+        long hash = hash(value);
+        int base = blockOf(hash);
+        long positions = mix(hash);
+        for (int i = 0; i < hashes; i++, positions >>>= 7) {
+            int position = (int) positions & (COUNTERS_PER_BLOCK - 1);
+            if ((counters[base + (position >>> 4)] & (0xFL << ((position & 15) << 2))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(int value) {
+        long hash = hash(value);
+        int base = blockOf(hash);
+        long positions = mix(hash);
+        for (int i = 0; i < hashes; i++, positions >>>= 7) {
+            int position = (int) positions & (COUNTERS_PER_BLOCK - 1);
+            int word = base + (position >>> 4);
+            int shift = (position & 15) << 2;
+            if (((counters[word] >>> shift) & 0xF) < MAX_COUNT) {
+                counters[word] += 1L << shift;
+            }
+        }
+    }
+
+    /**
+     * 移除一个之前add过的value，移除未add过的value会造成漏判
+     *
+     * @param value
+     */
+    public void remove(int value) {
+        long hash = hash(value);
+        int base = blockOf(hash);
+        long positions = mix(hash);
+        for (int i = 0; i < hashes; i++, positions >>>= 7) {
+            int position = (int) positions & (COUNTERS_PER_BLOCK - 1);
+            int word = base + (position >>> 4);
+            int shift = (position & 15) << 2;
+            long count = (counters[word] >>> shift) & 0xF;
+            if (count > 0 && count < MAX_COUNT) {
+                counters[word] -= 1L << shift;
+            }
+        }
+    }
+
+    /**
+     * 清空所有计数器
+     */
+    public void clear() {
+        Arrays.fill(counters, 0L);
+    }
+
+    public int getHashes() {
+        return hashes;
+    }
+
+    /**
+     * @return 计数器占用的字节数
+     */
+    public long getMemoryBytes() {
+        return (long) counters.length * 8;
+    }
+
+    /**
+     * 用高32位选择块，返回块中第一个long的下标
+     *
+     * @param hash
+     * @return
+     */
+    private int blockOf(long hash) {
+        return (int) (((hash >>> 32) * blocks) >>> 32) * WORDS_PER_BLOCK;
+    }
+
+    /**
+     * 高32位用于选择块；块内的位置由再次混合之后的hash每7位取一个，
+     * 不用h1 + i * h2的双重hash，因为块内只有128个位置，双重hash下两个value很容易所有位置都相同
+     *
+     * @param value
+     * @return
+     */
+    private static long hash(int value) {
+        return mix(value * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * murmur3的64位finalizer
+     *
+     * @param h
+     * @return
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
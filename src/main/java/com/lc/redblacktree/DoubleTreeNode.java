@@ -0,0 +1,97 @@
+package com.lc.redblacktree;
+
+/**
+ * node of RBTree，the value is a double
+ *
+ * @author lc
+ */
+public class DoubleTreeNode {
+    /**
+     * left node
+     */
+    private DoubleTreeNode left;
+    /**
+     * right node
+     */
+    private DoubleTreeNode right;
+    /**
+     * parent node
+     */
+    private DoubleTreeNode parent;
+    /**
+     * the value of a node
+     */
+    private double value;
+    /**
+     * the color of a node
+     */
+    private Color color;
+
+    /**
+     * constructor,all of the node will be initialized with the red color
+     */
+    public DoubleTreeNode() {
+        this.left = null;
+        this.right = null;
+        this.parent = null;
+        this.color = Color.RED;
+    }
+
+    /**
+     * constructor
+     *
+     * @param value
+     */
+    public DoubleTreeNode(double value) {
+        this.left = null;
+        this.right = null;
+        this.parent = null;
+        this.value = value;
+        this.color = Color.RED;
+    }
+
+    public DoubleTreeNode getLeft() {
+        return left;
+    }
+
+    public void setLeft(DoubleTreeNode left) {
+        this.left = left;
+    }
+
+    public DoubleTreeNode getRight() {
+        return right;
+    }
+
+    public void setRight(DoubleTreeNode right) {
+        this.right = right;
+    }
+
+    public DoubleTreeNode getParent() {
+        return parent;
+    }
+
+    public void setParent(DoubleTreeNode parent) {
+        this.parent = parent;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public void setColor(Color color) {
+        this.color = color;
+    }
+
+    @Override
+    public String toString() {
+        return "{value:" + this.value + " parent:" + (parent == null ? "null" : parent.getValue()) + " color:" + getColor().toString() + "}";
+    }
+}
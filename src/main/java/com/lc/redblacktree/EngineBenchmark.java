@@ -0,0 +1,113 @@
+package com.lc.redblacktree;
+
+import java.util.Random;
+
+/**
+ * 比较自底向上的{@link RedBlackTree}与自顶向下的{@link TopDownRedBlackTree}
+ * 参数：key个数 轮数，每轮对两种引擎依次执行：插入全部key、查找全部key、删除全部key，前一半轮次作为预热不计入结果
+ * 例如：java com.lc.redblacktree.EngineBenchmark 1000000 10
+ * key是打乱顺序的不重复值，避免RedBlackTree在重复插入或删除不存在的value时打印
+ * 查找对两种树使用形式完全相同的循环（find），不调用各自的getNode，因为RedBlackTree.getNode是递归实现，比较的会是递归与循环而不是两种节点
+ *
+ * @author lc
+ */
+public class EngineBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        int[] keys = shuffledKeys(n, new Random(42));
+        int[] order = shuffledKeys(n, new Random(7));
+        long[] bottomUp = new long[3];
+        long[] topDown = new long[3];
+        long sink = 0;
+        for (int round = 0; round < rounds; round++) {
+            boolean measure = round >= rounds / 2;
+            long[] times = new long[3];
+
+            RedBlackTree tree = new RedBlackTree();
+            long start = System.nanoTime();
+            for (int key : keys) {
+                tree.insert(key);
+            }
+            times[0] = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i : order) {
+                sink += find(tree.getRoot(), keys[i]).getValue();
+            }
+            times[1] = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i : order) {
+                tree.delete(keys[i]);
+            }
+            times[2] = System.nanoTime() - start;
+            if (measure) {
+                add(bottomUp, times);
+            }
+
+            TopDownRedBlackTree topDownTree = new TopDownRedBlackTree();
+            start = System.nanoTime();
+            for (int key : keys) {
+                topDownTree.insert(key);
+            }
+            times[0] = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i : order) {
+                sink += find(topDownTree.getRoot(), keys[i]).getValue();
+            }
+            times[1] = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i : order) {
+                topDownTree.delete(keys[i]);
+            }
+            times[2] = System.nanoTime() - start;
+            if (measure) {
+                add(topDown, times);
+            }
+        }
+        int measured = rounds - rounds / 2;
+        System.out.println("keys: " + n + ", measured rounds: " + measured + ", checksum: " + sink);
+        System.out.println(String.format("%-10s %12s %12s %12s", "engine", "insert ns/op", "get ns/op", "delete ns/op"));
+        print("bottom-up", bottomUp, (long) n * measured);
+        print("top-down", topDown, (long) n * measured);
+    }
+
+    private static TreeNode find(TreeNode current, int value) {
+        while (current != null && current.getValue() != value) {
+            current = current.getValue() < value ? current.getRight() : current.getLeft();
+        }
+        return current;
+    }
+
+    private static TopDownTreeNode find(TopDownTreeNode current, int value) {
+        while (current != null && current.getValue() != value) {
+            current = current.getValue() < value ? current.getRight() : current.getLeft();
+        }
+        return current;
+    }
+
+    private static int[] shuffledKeys(int n, Random random) {
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = temp;
+        }
+        return keys;
+    }
+
+    private static void add(long[] total, long[] times) {
+        for (int i = 0; i < total.length; i++) {
+            total[i] += times[i];
+        }
+    }
+
+    private static void print(String engine, long[] total, long ops) {
+        System.out.println(String.format("%-10s %12.1f %12.1f %12.1f", engine,
+                (double) total[0] / ops, (double) total[1] / ops, (double) total[2] / ops));
+    }
+}
@@ -0,0 +1,90 @@
+package com.lc.redblacktree;
+
+import java.util.Random;
+
+/**
+ * 比较RedBlackTree在有无{@link CountingBloomFilter}时的contains性能
+ * 参数：key个数 查询次数 误判率列表（逗号分隔）
+ * 例如：java com.lc.redblacktree.FilterBenchmark 1000000 5000000 0.01,0.001
+ * 树中只放偶数，命中查询取偶数，未命中查询取奇数，命中比例依次为0%、20%、50%、80%、100%
+ *
+ * @author lc
+ */
+public class FilterBenchmark {
+    private static final int[] HIT_PERCENTS = {0, 20, 50, 80, 100};
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 5000000;
+        String[] rates = (args.length > 2 ? args[2] : "0.01,0.001").split(",");
+
+        //按打乱的顺序插入不重复的偶数
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = 2 * i;
+        }
+        Random random = new Random(42);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = temp;
+        }
+        RedBlackTree tree = new RedBlackTree();
+        for (int key : keys) {
+            tree.insert(key);
+        }
+
+        System.out.println(String.format("keys: %d, queries per run: %d", n, queries));
+        System.out.println(String.format("%-12s %10s %6s %12s %12s %10s", "filter", "memory KB", "hit %", "ns/contains", "measured fpr", "hits"));
+        for (int hitPercent : HIT_PERCENTS) {
+            run(tree, null, "none", n, queries, hitPercent);
+        }
+        for (String rate : rates) {
+            CountingBloomFilter filter = new CountingBloomFilter(n, Double.parseDouble(rate));
+            tree.setFilter(filter);
+            for (int hitPercent : HIT_PERCENTS) {
+                run(tree, filter, "fpr " + rate, n, queries, hitPercent);
+            }
+            tree.setFilter(null);
+        }
+    }
+
+    private static void run(RedBlackTree tree, CountingBloomFilter filter, String name, int n, int queries, int hitPercent) {
+        int[] values = new int[queries];
+        Random random = new Random(hitPercent);
+        for (int i = 0; i < queries; i++) {
+            int key = 2 * random.nextInt(n);
+            values[i] = random.nextInt(100) < hitPercent ? key : key + 1;
+        }
+        //预热一遍再计时
+        for (int value : values) {
+            tree.contains(value);
+        }
+        long hits = 0;
+        long start = System.nanoTime();
+        for (int value : values) {
+            if (tree.contains(value)) {
+                hits++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        String fpr = "-";
+        if (filter != null) {
+            long misses = 0;
+            long falsePositives = 0;
+            for (int value : values) {
+                if ((value & 1) != 0) {
+                    misses++;
+                    if (filter.mightContain(value)) {
+                        falsePositives++;
+                    }
+                }
+            }
+            fpr = misses == 0 ? "-" : String.format("%.5f", (double) falsePositives / misses);
+        }
+        long memory = filter == null ? 0 : filter.getMemoryBytes() / 1024;
+        System.out.println(String.format("%-12s %10d %6d %12.1f %12s %10d", name, memory, hitPercent, (double) elapsed / queries, fpr, hits));
+    }
+}
@@ -0,0 +1,63 @@
+package com.lc.redblacktree;
+
+/**
+ * 闭区间[start, end]，{@link IntervalTree}中保存和返回的区间
+ *
+ * @author lc
+ */
+public class Interval {
+    /**
+     * the start of the interval
+     */
+    private final int start;
+    /**
+     * the end of the interval
+     */
+    private final int end;
+
+    public Interval(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * 判断是否与[low, high]相交
+     *
+     * @param low
+     * @param high
+     * @return
+     */
+    public boolean overlaps(int low, int high) {
+        return start <= high && end >= low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Interval)) {
+            return false;
+        }
+        Interval other = (Interval) o;
+        return start == other.start && end == other.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * start + end;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + "," + end + "]";
+    }
+}
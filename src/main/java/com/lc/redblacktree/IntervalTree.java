@@ -0,0 +1,235 @@
+package com.lc.redblacktree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 区间树，以区间的start作为红黑树的value，每个节点的aggregate为Group，
+ * 保存以该start开始的所有区间的end，并维护子树中的最大end（maxEnd），查询时可以跳过maxEnd小于查询起点的整棵子树
+ * 红黑树使用multiset模式，节点的count就是以该start开始的区间个数，因此start相同的多个区间（包括完全相同的区间）都会保留
+ *
+ * @author lc
+ */
+public class IntervalTree {
+    /**
+     * maxEnd = max(自身最大end, 左子树maxEnd, 右子树maxEnd)
+     */
+    private static final Augmentation AUGMENTATION = new Augmentation() {
+        @Override
+        public void update(TreeNode current) {
+            Group group = groupOf(current);
+            if (group == null) {
+                //新插入的节点，end由IntervalTree.insert随后加入
+                group = new Group(current.getValue());
+                current.setAggregate(group);
+            }
+            int maxEnd = group.size == 0 ? Integer.MIN_VALUE : group.ends[group.size - 1];
+            if (current.getLeft() != null) {
+                maxEnd = Math.max(maxEnd, groupOf(current.getLeft()).maxEnd);
+            }
+            if (current.getRight() != null) {
+                maxEnd = Math.max(maxEnd, groupOf(current.getRight()).maxEnd);
+            }
+            group.maxEnd = maxEnd;
+        }
+    };
+
+    /**
+     * 以同一个start开始的所有区间
+     */
+    private static final class Group {
+        private final int start;
+        /**
+         * 升序排列的end，个数与节点的count相同
+         */
+        private int[] ends = new int[1];
+        private int size;
+        /**
+         * the maximum end in the subtree
+         */
+        private int maxEnd;
+
+        private Group(int start) {
+            this.start = start;
+        }
+
+        private void add(int end) {
+            int index = Arrays.binarySearch(ends, 0, size, end);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (size == ends.length) {
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            System.arraycopy(ends, index, ends, index + 1, size - index);
+            ends[index] = end;
+            size++;
+        }
+
+        private boolean remove(int end) {
+            int index = Arrays.binarySearch(ends, 0, size, end);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ends, index + 1, ends, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * 将end >= low的区间按end升序加入data
+         */
+        private void collect(int low, List<Interval> data) {
+            for (int i = lowerBound(low); i < size; i++) {
+                data.add(new Interval(start, ends[i]));
+            }
+        }
+
+        /**
+         * @return 第一个end >= low的下标
+         */
+        private int lowerBound(int low) {
+            int left = 0;
+            int right = size;
+            while (left < right) {
+                int middle = (left + right) >>> 1;
+                if (ends[middle] < low) {
+                    left = middle + 1;
+                } else {
+                    right = middle;
+                }
+            }
+            return left;
+        }
+    }
+
+    private final RedBlackTree tree;
+    private int size;
+
+    public IntervalTree() {
+        this.tree = new RedBlackTree(AUGMENTATION);
+        this.tree.setMultiset(true);
+    }
+
+    public RedBlackTree getTree() {
+        return tree;
+    }
+
+    /**
+     * 插入区间[start, end]，只从root查找一次
+     *
+     * @param start
+     * @param end
+     */
+    public void insert(int start, int end) {
+        if (start > end) {
+            throw new IllegalArgumentException("start " + start + " is greater than end " + end);
+        }
+        TreeNode current = tree.insertNode(start);
+        groupOf(current).add(end);
+        tree.updatePath(current);
+        size++;
+    }
+
+    /**
+     * 删除一个区间[start, end]，存在多个相同的区间时只删除一个
+     *
+     * @param start
+     * @param end
+     * @return 不存在该区间时返回false
+     */
+    public boolean delete(int start, int end) {
+        TreeNode current = tree.getNode(start);
+        if (current == null || !groupOf(current).remove(end)) {
+            return false;
+        }
+        /**
+         * count减1并沿路径更新maxEnd，count减到0时删除节点
+         */
+        tree.tryDelete(start);
+        size--;
+        return true;
+    }
+
+    /**
+     * 获取以start开始的所有区间，按end升序
+     *
+     * @param start
+     * @return 不存在时返回空列表
+     */
+    public List<Interval> get(int start) {
+        List<Interval> data = new ArrayList<>();
+        TreeNode current = tree.getNode(start);
+        if (current != null) {
+            groupOf(current).collect(Integer.MIN_VALUE, data);
+        }
+        return data;
+    }
+
+    /**
+     * 查找任意一个与[low, high]相交的区间，O(log n)
+     * 左子树的maxEnd>=low时，如果左子树中没有相交的区间，右子树中也不会有（右子树的start都大于左子树中maxEnd对应区间的start，且该区间start>high）
+     *
+     * @param low
+     * @param high
+     * @return 不存在返回null
+     */
+    public Interval findAnyOverlapping(int low, int high) {
+        TreeNode current = tree.getRoot();
+        while (current != null) {
+            Group group = groupOf(current);
+            if (group.start <= high && group.ends[group.size - 1] >= low) {
+                return new Interval(group.start, group.ends[group.size - 1]);
+            }
+            if (current.getLeft() != null && groupOf(current.getLeft()).maxEnd >= low) {
+                current = current.getLeft();
+            } else {
+                current = current.getRight();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按start顺序（start相同时按end顺序）查找所有与[low, high]相交的区间，O(k log n)，k为结果个数
+     *
+     * @param low
+     * @param high
+     * @return
+     */
+    public List<Interval> findOverlapping(int low, int high) {
+        List<Interval> data = new ArrayList<>();
+        findOverlapping(tree.getRoot(), low, high, data);
+        return data;
+    }
+
+    private void findOverlapping(TreeNode current, int low, int high, List<Interval> data) {
+        /**
+         * 子树中所有区间的end都小于low，整棵子树都不相交
+         */
+        if (current == null || groupOf(current).maxEnd < low) {
+            return;
+        }
+        findOverlapping(current.getLeft(), low, high, data);
+        /**
+         * start大于high时，当前节点和右子树的区间都不相交
+         */
+        if (current.getValue() > high) {
+            return;
+        }
+        groupOf(current).collect(low, data);
+        findOverlapping(current.getRight(), low, high, data);
+    }
+
+    /**
+     * @return 区间个数
+     */
+    public int size() {
+        return size;
+    }
+
+    private static Group groupOf(TreeNode current) {
+        return (Group) current.getAggregate();
+    }
+}
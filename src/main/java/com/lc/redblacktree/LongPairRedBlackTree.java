@@ -0,0 +1,750 @@
+package com.lc.redblacktree;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * @author lc
+ * 以两个long组成的复合key(first, second)的红黑树，结构与{@link RedBlackTree}一致，适用于(tenant, id)这类key
+ * key先按first比较，相等时再按second比较，比较直接在基本类型上进行，不创建key对象
+ * 红黑树性质
+ * *****节点是红色或黑色。
+ * *****根是黑色。
+ * *****所有叶子都是黑色（叶子是NIL节点）。
+ * *****每个红色节点必须有两个黑色的子节点。（从每个叶子到根的所有路径上不能有两个连续的红色节点。）
+ * *****从任一节点到其每个叶子的所有简单路径都包含相同数目的黑色节点。
+ */
+public class LongPairRedBlackTree {
+    /**
+     * The root of RBTree
+     */
+    private LongPairTreeNode root;
+
+    public LongPairTreeNode getRoot() {
+        return root;
+    }
+
+    public void setRoot(LongPairTreeNode root) {
+        this.root = root;
+    }
+
+    public LongPairRedBlackTree() {
+        this.root = null;
+    }
+
+    public LongPairRedBlackTree(LongPairTreeNode root) {
+        this.root = root;
+    }
+    /*********get操作*******/
+    /**
+     * 根据传入的key获取对应的节点
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    public LongPairTreeNode getNode(long first, long second) {
+        if (getRoot() == null) {
+            return null;
+        }
+        return getNodeRecursive(getRoot(), first, second);
+    }
+
+    /**
+     * 判断key是否存在
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    public boolean contains(long first, long second) {
+        return getNode(first, second) != null;
+    }
+
+    /**
+     * 获取给定节点的祖父节点，前提是该节点一定存在granPa
+     *
+     * @param current
+     * @return
+     */
+    public LongPairTreeNode grandPaNode(LongPairTreeNode current) {
+        return current.getParent().getParent();
+    }
+
+    /**
+     * 获取树高度，定义只有一个节点时为高度1
+     *
+     * @return
+     */
+    public int getHeight() {
+        return getHeight(getRoot());
+    }
+
+    private int getHeight(LongPairTreeNode current) {
+        if (current == null) {
+            return 0;
+        }
+        int leftHeight = getHeight(current.getLeft());
+        int rightHeight = getHeight(current.getRight());
+        return (leftHeight > rightHeight ? leftHeight : rightHeight) + 1;
+    }
+
+    /**
+     * 获取给定节点的叔叔节点，前提是该节点一定存在uncle
+     *
+     * @param current
+     * @return
+     */
+    public LongPairTreeNode uncleNode(LongPairTreeNode current) {
+        LongPairTreeNode parent = current.getParent();
+        LongPairTreeNode grandPa = grandPaNode(current);
+        if (grandPa.getLeft() == parent) {
+            return grandPa.getRight();
+        } else {
+            return grandPa.getLeft();
+        }
+    }
+
+    /**
+     * 获取current的兄弟节点
+     *
+     * @param current
+     * @return
+     */
+    public LongPairTreeNode siblingNode(LongPairTreeNode current) {
+        if (current == null) {
+            return null;
+        }
+        if (current.getParent() == null) {
+            return null;
+        }
+        if (current.getParent().getLeft() == current) {
+            return current.getParent().getRight();
+        } else {
+            return current.getParent().getLeft();
+        }
+    }
+
+    /**
+     * 获取current子节点
+     * 如果左右节点非空，返回left
+     *
+     * @param current
+     * @return
+     */
+    public LongPairTreeNode getChild(LongPairTreeNode current) {
+        if (current != null) {
+            if (current.getLeft() != null) {
+                return current.getLeft();
+            } else {
+                return current.getRight();
+            }
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * 递归获取值
+     *
+     * @param current
+     * @param first
+     * @param second
+     * @return
+     */
+    private LongPairTreeNode getNodeRecursive(LongPairTreeNode current, final long first, final long second) {
+        if (current == null) {
+            return null;
+        }
+        int cmp = current.compareTo(first, second);
+        if (cmp == 0) {
+            return current;
+        } else if (cmp < 0) {
+            return getNodeRecursive(current.getRight(), first, second);
+        } else {
+            return getNodeRecursive(current.getLeft(), first, second);
+        }
+    }
+
+    /********中序遍历获取所有的value*******/
+    /**
+     * 中序遍历将key放入List，利用红黑树排序，每个key为长度为2的数组{first, second}
+     */
+    public List<long[]> inOrder() {
+        List<long[]> data = new ArrayList<>();
+        inOrder(getRoot(), data);
+        return data;
+    }
+
+    private void inOrder(LongPairTreeNode current, List<long[]> data) {
+        if (data == null) {
+            data = new ArrayList<long[]>();
+        }
+        if (current == null) {
+            return;
+        }
+        inOrder(current.getLeft(), data);
+        data.add(new long[]{current.getFirst(), current.getSecond()});
+        inOrder(current.getRight(), data);
+    }
+
+    /******************insert操作********************************/
+    /**
+     * 插入操作分为两个步骤，首先按照一般的二叉查找树插入，然后再做调整；
+     * 特殊情况：如果插入的value已存在则直接返回
+     *
+     * @param first
+     * @param second
+     */
+    public void insert(final long first, final long second) {
+        if (!tryInsert(first, second)) {
+            System.out.println("已存在该Value，无需插入");
+        }
+    }
+
+    /**
+     * 插入key，不打印，只从root查找一次
+     *
+     * @param first
+     * @param second
+     * @return key已存在时返回false
+     */
+    public boolean tryInsert(final long first, final long second) {
+        LongPairTreeNode current = null;
+        if (getRoot() == null) {
+            root = new LongPairTreeNode(first, second);
+            current = root;
+        } else {
+            LongPairTreeNode temp = root;
+            LongPairTreeNode parent = null;
+            while (temp != null) {
+                parent = temp;
+                int cmp = temp.compareTo(first, second);
+                if (cmp == 0) {
+                    return false;
+                } else if (cmp > 0) {
+                    temp = temp.getLeft();
+                } else {
+                    temp = temp.getRight();
+                }
+            }
+            if (parent.compareTo(first, second) > 0) {
+                parent.setLeft(new LongPairTreeNode(first, second));
+                current = parent.getLeft();
+            } else {
+                parent.setRight(new LongPairTreeNode(first, second));
+                current = parent.getRight();
+            }
+            /**
+             * 设置其父节点
+             */
+            current.setParent(parent);
+        }
+        /**
+         * 调整颜色或者旋转,如果不调用adjust，就是一般的二叉查找树
+         */
+        adjust_insert(current);
+        return true;
+    }
+
+    /**
+     * 调整分为多个case
+     * 递归思路就是枚举Parent，Uncle，grandPa的各种颜色状况
+     * 调整分为如下几个case
+     * *****case1：parent为null，将parent设置为black，到此调整结束；
+     * *****case2：parent为black，无需其他操作直接返回
+     * *****case3：parent为red，则grandPa一定存在且为black，uncle可红可黑可null，这种情况需要继续分如下
+     * ********case3.1：uncle为red，则将parent和uncle置为black，grandpa置为red，重新对grandpa进行调整；
+     * ********case3.2：uncle为black或者null，parent是grandpa的左节点，current是parent左节点，以parent为中心，grandpa右旋转，并交换parent和grandpa颜色，到此调整结束；
+     * ********case3.3：uncle为black或者null，parent是grandpa的左节点，current是parent右节点，以current为中心，parent左旋转，旋转之后变为case3.2；
+     * ********case3.4：uncle为black或者null，parent是grandpa的右节点，current是parent右节点，以parent为中心，grandpa左旋转，并交换parent和grandpa颜色，到此调整结束；
+     * ********case3.5：uncle为black或者null，parent是grandpa的右节点，current是parent左节点，以current为中心，parent右旋转，旋转之后变为case3.4；
+     *
+     * @param current 非null
+     */
+    public void adjust_insert(LongPairTreeNode current) {
+        /**
+         * case1：插入节点无父节点，只需要将color设置为黑色即可
+         */
+        if (current.getParent() == null) {
+            current.setColor(Color.BLACK);
+            return;
+        }
+        /**
+         * case2：如果插入节点的父节点是黑色节点，插入一个红色节点无需做任何调整
+         */
+        if (current.getParent().getColor() == Color.BLACK) {
+            return;
+        }
+        /**
+         * case3.1：parent和uncle都为red
+         * grandpa一定非null
+         */
+        if (uncleNode(current) != null && uncleNode(current).getColor() == Color.RED) {
+            /**
+             * 此处先调色，这样代码更少
+             */
+            current.getParent().setColor(Color.BLACK);
+            uncleNode(current).setColor(Color.BLACK);
+            grandPaNode(current).setColor(Color.RED);
+            adjust_insert(grandPaNode(current));
+            return;
+        }
+
+        if (uncleNode(current) == null || uncleNode(current).getColor() == Color.BLACK) {
+            /**
+             * case3.1
+             */
+            if (current.getParent() == grandPaNode(current).getLeft() && current == current.getParent().getLeft()) {
+                current.getParent().setColor(Color.BLACK);
+                grandPaNode(current).setColor(Color.RED);
+                rotateRight(current.getParent());
+
+            } else if (current.getParent() == grandPaNode(current).getLeft() && current == current.getParent().getRight()) {
+                /**
+                 * case3.2
+                 */
+                rotateLeft(current);
+                rotateRight(current);
+                current.setColor(Color.BLACK);
+                current.getRight().setColor(Color.RED);
+            } else if (current.getParent() == grandPaNode(current).getRight() && current == current.getParent().getLeft()) {
+                /**
+                 * case4.4
+                 */
+                rotateRight(current);
+                rotateLeft(current);
+                current.setColor(Color.BLACK);
+                current.getLeft().setColor(Color.RED);
+            } else if (current.getParent() == grandPaNode(current).getRight() && current == current.getParent().getRight()) {
+                /**
+                 * case4.3
+                 */
+                current.getParent().setColor(Color.BLACK);
+                grandPaNode(current).setColor(Color.RED);
+                rotateLeft(current.getParent());
+            }
+
+        }
+    }
+    /*********************删除操作*****************************/
+    /**
+     * 删除任何一个节点，无论其子节点个数为0,1,2，都可以转换为删除一个最多有一个非叶子节点的node
+     * 参考：https://segmentfault.com/a/1190000012115424
+     * https://zhuanlan.zhihu.com/p/25402654
+     * 动画：https://www.cs.usfca.edu/~galles/visualization/RedBlack.html
+     * 假设要删除节点为current（原始节点，未被替换的，且current至多有一个非空子节点），父节点为parent，子节点为child，兄弟节点为sibling，兄弟节点的子节点为sl，sr，删除操作需要分如下case：
+     * *****case1：current为red，直接删除current，parent指向child，child指向parent即可；
+     * *****case2：current为black，child为red（说明child一定不是null），删除current，child设置为black即可
+     * 如果不足case1，case2时，current一定是black，因此以下情况前提是current非null且是black
+     * *****case3：parent为null，这种情况只可能是current是black，child非null，则child为red，child的左右节点都为null；或者current为black，child为null。
+     * 因为如果child为red，在case2就被处理了。此时current就是根节点root，即current==root，将root设置为null即完成删除操作
+     * 如果不满足case3，则一定有parent不为null，则以下情况前提是current非null且是black，parent非null，由此可推出sibling一定非null，否则不满足红黑树性质，sl,sr可为空也可非空，sl，sr为null时被当做black
+     * 在进行操作之前用child替换current，current为新的节点（原来的child），如果current是parent的左子节点，记为PL，反之记为PR
+     * *****case4：parent为red，sibling为black，sl，sr都为black（为null也当做black），将parent和sibling颜色交换即完成所有操作
+     * *****case5：current为parent的PL，sibling为black，且sr为red，parent可红可黑，sl可红可黑，然后以sibling为中心，parent左旋转，并交换sibling和parent颜色，并将sr置为black
+     * *****case6：（case5的镜像）current是parent的PR，sibling是black，sl是red，parent可红可黑，sr可红可黑，然后以sibling为中心，parent右旋转，并交换sibling和parent颜色，并将sl置为black
+     * *****case7：current为parent的PL，sibling为black，且sl为red，parent可红可黑，sr可红可黑，先sl为中心，sibling右旋转，并交换sl和sibling颜色，然后调用case5
+     * *****case8：（case7的镜像）current为parent的PR，sibling为black，且sr为red，parent可红可黑，sl可红可黑，先sr为中心，sibling左旋转，并交换sr和sibling颜色，然后调用case6
+     * *****case9：current为parent的PL，sibling为red，以sibling为中心，parent左旋转，并交换sibling和parent颜色，然后按照case4处理
+     * *****case10：(case9的镜像)current为parent的PR，sibling为red，以sibling为中心，parent右旋转，并交换sibling和parent颜色，然后按照case4处理
+     * *****case11：current为black，parent为black，sibling为black，sl，sr都为black（为null也当做black），将sibling设置为红色，再以parent节点递归调整
+     *
+     * @param first
+     * @param second
+     */
+    public void delete(final long first, final long second) {
+        if (!tryDelete(first, second)) {
+            System.out.println("不存在该value，无法删除");
+        }
+    }
+
+    /**
+     * 删除key，不打印，只从root查找一次
+     *
+     * @param first
+     * @param second
+     * @return key不存在时返回false
+     */
+    public boolean tryDelete(final long first, final long second) {
+        /**
+         * 红黑树中，如果一个black节点只有一个非空子节点，那一定只有一种情况就是该节点是black，child为red，child子节点都为null
+         */
+        LongPairTreeNode current = getNode(first, second);
+        if (current == null) {
+            return false;
+        }
+        /**
+         * current的左右节点都不为null，则找到current左子树中最大的节点
+         * 执行完之后，此时current执行将被删除的节点，至多有一个非叶子节点
+         */
+        if (current.getLeft() != null && current.getRight() != null) {
+            LongPairTreeNode temp = current.getLeft();
+            //左子树最右的节点即为值最大的节点
+            while (temp.getRight() != null) {
+                temp = temp.getRight();
+            }
+            current.setFirst(temp.getFirst());
+            current.setSecond(temp.getSecond());
+            current = temp;
+        }
+        /**
+         * 判断是否满足最简单的两种case，满足则删除并直接返回，无需递归调整
+         * case1：删除节点为red
+         * case2：删除节点为black，子节点为red
+         * 除此之外都进入adjust_delete
+         */
+        if (delete_simple_case(current)) {
+            return true;
+        }
+        /**
+         * 如果current不满足简单case，则将current删除，用其子节点顶替，然后再调整
+         * 顶替之后current指向向上顶替的节点（也就是原来的子节点,可能current为null，即使current为null，也当做黑色节点）
+         * 此处隐含1、条件current是非空黑色节点；2、current的parent如果存在，则current也必存在一个非空Sibling节点，
+         * 否则不满足红黑树条件
+         */
+        LongPairTreeNode parent = current.getParent();
+        LongPairTreeNode sibling = siblingNode(current);
+        /**
+         * case3
+         */
+        if (parent == null) {
+            root = null;
+            return true;
+        }
+        boolean flag = false;
+        if (parent.getRight() == current) {
+            flag = false;//右子树
+        } else {
+            flag = true;
+        }
+        current = replace(current);
+        /**
+         * 进入adjust_delete的情况包括current可能为null，如果为null就当做黑色节点
+         */
+        adjust_delete(current, parent, sibling, flag);
+        return true;
+    }
+
+    /**
+     * 删除节点时的两种简单case，单独将这两个case拎出来是因为无需做递归调整
+     *
+     * @param current
+     * @return
+     */
+    private boolean delete_simple_case(LongPairTreeNode current) {
+        /**
+         * case1:如果current为red节点，直接用current的非叶子节点顶替current即可
+         * current为red节点，则必有parent节点，但是current的child可能为null
+         */
+        if (current != null && current.getColor() == Color.RED) {
+            LongPairTreeNode parent = current.getParent();
+            LongPairTreeNode child = null;
+            if (current.getLeft() != null) {
+                child = current.getLeft();
+            } else {
+                child = current.getRight();
+            }
+            if (parent.getLeft() == current) {
+                parent.setLeft(child);
+            } else {
+                parent.setRight(child);
+            }
+            if (child != null) {
+                child.setParent(parent);
+            }
+            setNull(current);
+            return true;
+        }
+        /**
+         * case2:如果current为black，current的child非空且为red，只需要将current的parent指向child，将child设置为black
+         * current的parent可能为null
+         */
+        if (current.getColor() == Color.BLACK && getChild(current) != null && getChild(current).getColor() == Color.RED) {
+            LongPairTreeNode parent = current.getParent();
+            LongPairTreeNode child = getChild(current);
+            child.setParent(parent);
+            child.setColor(Color.BLACK);
+            if (parent == null) {
+                root = child;
+            } else {
+                if (parent.getLeft() == current) {
+                    parent.setLeft(child);
+                } else {
+                    parent.setRight(child);
+                }
+            }
+            setNull(current);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 删除节点时的调整操作
+     * P表示current父节点，S表示current兄弟节点，SL表示S的左节点，SR表示S的右节点
+     * 递归调整,递归调整的思路就是枚举P，S，SL，SR的各种颜色状况
+     * 隐含条件S必定非空
+     * flag = false 表示current是parent做解答，否则为右节点
+     *
+     * @param current
+     */
+    public void adjust_delete(LongPairTreeNode current, LongPairTreeNode parent, LongPairTreeNode sibling, boolean flag) {
+        if (parent == null) {
+            return;
+        }
+        /**
+         * case4:parent为red，sibling为black，sl，sr都为black（为null也当做black）
+         */
+        if (parent.getColor() == Color.RED && sibling != null && sibling.getColor() == Color.BLACK) {
+            if (isBlackNode(sibling.getLeft()) && isBlackNode(sibling.getRight())) {
+                parent.setColor(Color.BLACK);
+                sibling.setColor(Color.RED);
+                return;
+            }
+        }
+        /**
+         * case5:current为parent的PL，sibling为black，且sr为red，parent可红可黑，sl可红可黑
+         */
+        if (flag && sibling != null && sibling.getColor() == Color.BLACK && sibling.getRight() != null && sibling.getRight().getColor() == Color.RED) {
+            sibling.setColor(parent.getColor());
+            parent.setColor(Color.BLACK);
+            sibling.getRight().setColor(Color.BLACK);
+            rotateLeft(sibling);
+            return;
+        }
+        /**
+         * case6：（case5的镜像）current是parent的PR，sibling是black，sl是red，parent可红可黑，sr可红可黑
+         */
+        if (!flag && sibling != null && sibling.getColor() == Color.BLACK && sibling.getLeft() != null && sibling.getLeft().getColor() == Color.RED) {
+            sibling.setColor(parent.getColor());
+            parent.setColor(Color.BLACK);
+            sibling.getLeft().setColor(Color.BLACK);
+            rotateRight(sibling);
+            return;
+        }
+        /**
+         * case7:current为parent的PL，sibling为black，且sl为red，parent可红可黑，sr可红可黑
+         */
+        if (flag && sibling != null && sibling.getColor() == Color.BLACK && sibling.getLeft() != null && sibling.getLeft().getColor() == Color.RED) {
+            sibling.setColor(Color.RED);
+            sibling.getLeft().setColor(Color.BLACK);
+            LongPairTreeNode temp = sibling.getLeft();
+            rotateRight(temp);
+            adjust_delete(current, parent, temp, true);
+            return;
+        }
+        /**
+         * case8:（case7的镜像）current为parent的PR，sibling为black，且sr为red，parent可红可黑，sl可红可黑
+         */
+        if (!flag && sibling != null && sibling.getColor() == Color.BLACK && sibling.getRight() != null && sibling.getRight().getColor() == Color.RED) {
+            sibling.setColor(Color.RED);
+            sibling.getRight().setColor(Color.BLACK);
+            LongPairTreeNode temp = sibling.getRight();
+            rotateLeft(temp);
+            adjust_delete(current, parent, temp, false);
+            return;
+        }
+        /**
+         * case9：current为parent的PL，sibling为red
+         */
+        if (flag && sibling != null && sibling.getColor() == Color.RED) {
+            sibling.setColor(parent.getColor());
+            parent.setColor(Color.RED);
+            rotateLeft(sibling);
+            adjust_delete(current, parent, parent.getRight(), true);
+            return;
+        }
+        /**
+         * case10：(case9的镜像)current为parent的PR，sibling为red
+         */
+        if (!flag && sibling != null && sibling.getColor() == Color.RED) {
+            sibling.setColor(parent.getColor());
+            parent.setColor(Color.RED);
+            rotateRight(sibling);
+            adjust_delete(current, parent, parent.getLeft(), false);
+            return;
+        }
+        /**
+         * case11：current为black，parent为black，sibling为black，sl，sr都为black（为null也当做black）
+         */
+        if (parent.getColor() == Color.BLACK && sibling != null && sibling.getColor() == Color.BLACK && isBlackNode(sibling.getLeft()) && isBlackNode(sibling.getRight())) {
+            sibling.setColor(Color.RED);
+            LongPairTreeNode tempParent = parent.getParent();
+            LongPairTreeNode tempSibling = null;
+            boolean tempFlag = false;
+            if (tempParent != null) {
+                if (tempParent.getRight() == parent) {
+                    tempSibling = tempParent.getLeft();
+                    tempFlag = false;
+                } else {
+                    tempSibling = tempParent.getRight();
+                    tempFlag = true;
+                }
+            } else {
+                tempFlag = true;
+                tempSibling = null;
+            }
+            adjust_delete(parent, tempParent, tempSibling, tempFlag);
+            return;
+        }
+
+    }
+
+    /**
+     * 删除节点current，并用其子节点顶替，current至多有一个非空子节点
+     * 如果current无子节点，直接返回current，不做替换
+     *
+     * @param current
+     * @return 返回顶替之后的父节点，current设置为需要调整的节点
+     */
+    public LongPairTreeNode replace(LongPairTreeNode current) {
+        if (current == null) {
+            return null;
+        }
+        LongPairTreeNode parent = current.getParent();
+        LongPairTreeNode child = null;
+        if (current.getLeft() != null) {
+            child = current.getLeft();
+        } else {
+            child = current.getRight();
+        }
+        if (parent == null) {
+            root = child;
+        } else {
+            if (parent.getLeft() == current) {
+                parent.setLeft(child);
+            } else {
+                parent.setRight(child);
+            }
+        }
+        //无非空子节点
+        if (child != null) {
+            child.setParent(parent);
+        }
+        setNull(current);
+        return child;
+    }
+
+
+    /*********************左旋转、右旋转***********************/
+    /**
+     * 左旋转,此处的左旋转是指将current作为中心，将current的parent置为current的left，原有的current的left置为parent的right，current会作为其grandpa的一个子节点
+     *
+     * @param current
+     * @return
+     */
+    public void rotateLeft(LongPairTreeNode current) {
+        LongPairTreeNode parent = current.getParent();
+        /**
+         * grandpa可能会为null，currentLeft 可能为null
+         */
+        LongPairTreeNode grandpa = parent.getParent();
+        LongPairTreeNode currentLeft = current.getLeft();
+
+        parent.setRight(currentLeft);
+        if (currentLeft != null) {
+            currentLeft.setParent(parent);
+        }
+        current.setLeft(parent);
+        parent.setParent(current);
+
+        //这一个判断很重要
+        if (getRoot() == parent) {
+            root = current;
+        }
+        current.setParent(grandpa);
+        if (grandpa != null) {
+            if (grandpa.getRight() == parent) {
+                grandpa.setRight(current);
+            } else {
+                grandpa.setLeft(current);
+            }
+        }
+    }
+
+    /**
+     * 右旋转，此处的右旋转是指将current作为中心，将current的parent置为current的right，原有的current的right置为parent的left，current会作为其grandpa的一个子节点
+     *
+     * @param current
+     * @return
+     */
+    public void rotateRight(LongPairTreeNode current) {
+        LongPairTreeNode parent = current.getParent();
+        /**
+         * grandpa可能会为null，currentRight 可能为null
+         */
+        LongPairTreeNode grandpa = parent.getParent();
+        LongPairTreeNode currentRight = current.getRight();
+        parent.setLeft(currentRight);
+        if (currentRight != null) {
+            currentRight.setParent(parent);
+        }
+        current.setRight(parent);
+        parent.setParent(current);
+
+        if (getRoot() == parent) {
+            root = current;
+        }
+        current.setParent(grandpa);
+        if (grandpa != null) {
+            if (grandpa.getRight() == parent) {
+                grandpa.setRight(current);
+            } else {
+                grandpa.setLeft(current);
+            }
+        }
+    }
+
+    /**
+     * 将给定节点left，right，parent设置为null
+     * 有助于垃圾回收GC
+     * @param current
+     */
+    public void setNull(LongPairTreeNode current) {
+        if (current != null) {
+            current.setParent(null);
+            current.setRight(null);
+            current.setLeft(null);
+        }
+    }
+
+    private boolean isBlackNode(LongPairTreeNode current) {
+        if (current == null || current.getColor() == Color.BLACK) {
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 广度优先遍历打印节点
+     */
+    public void BFSPrint() {
+        if (getRoot() == null) {
+            System.out.println("LongPairRedBlackTree is empty");
+            return;
+        }
+        Queue<LongPairTreeNode> queue = new LinkedList<LongPairTreeNode>();
+        queue.offer(getRoot());
+        queue.offer(null);
+        while (queue.size() > 1) {
+            LongPairTreeNode temp = queue.poll();
+            if (temp == null) {
+                System.out.print("\n");
+                queue.offer(null);
+                continue;
+            }
+            if (temp.getLeft() != null) {
+                queue.offer(temp.getLeft());
+            }
+            if (temp.getRight() != null) {
+                queue.offer(temp.getRight());
+            }
+            System.out.print(temp.toString());
+            System.out.print("  ");
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.lc.redblacktree;
+
+/**
+ * node of RBTree，the key is a pair of long (first, second), e.g. (tenant, id)
+ * pairs are ordered by first, then by second
+ *
+ * @author lc
+ */
+public class LongPairTreeNode {
+    /**
+     * left node
+     */
+    private LongPairTreeNode left;
+    /**
+     * right node
+     */
+    private LongPairTreeNode right;
+    /**
+     * parent node
+     */
+    private LongPairTreeNode parent;
+    /**
+     * the first part of the key
+     */
+    private long first;
+    /**
+     * the second part of the key
+     */
+    private long second;
+    /**
+     * the color of a node
+     */
+    private Color color;
+
+    /**
+     * constructor,all of the node will be initialized with the red color
+     */
+    public LongPairTreeNode() {
+        this.left = null;
+        this.right = null;
+        this.parent = null;
+        this.color = Color.RED;
+    }
+
+    /**
+     * constructor
+     *
+     * @param first
+     * @param second
+     */
+    public LongPairTreeNode(long first, long second) {
+        this.left = null;
+        this.right = null;
+        this.parent = null;
+        this.first = first;
+        this.second = second;
+        this.color = Color.RED;
+    }
+
+    public LongPairTreeNode getLeft() {
+        return left;
+    }
+
+    public void setLeft(LongPairTreeNode left) {
+        this.left = left;
+    }
+
+    public LongPairTreeNode getRight() {
+        return right;
+    }
+
+    public void setRight(LongPairTreeNode right) {
+        this.right = right;
+    }
+
+    public LongPairTreeNode getParent() {
+        return parent;
+    }
+
+    public void setParent(LongPairTreeNode parent) {
+        this.parent = parent;
+    }
+
+    public long getFirst() {
+        return first;
+    }
+
+    public void setFirst(long first) {
+        this.first = first;
+    }
+
+    public long getSecond() {
+        return second;
+    }
+
+    public void setSecond(long second) {
+        this.second = second;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public void setColor(Color color) {
+        this.color = color;
+    }
+
+    /**
+     * 比较当前节点的key与(first, second)，先比较first，相等时再比较second
+     *
+     * @param first
+     * @param second
+     * @return 小于返回负数，相等返回0，大于返回正数
+     */
+    public int compareTo(long first, long second) {
+        if (this.first != first) {
+            return this.first < first ? -1 : 1;
+        }
+        if (this.second != second) {
+            return this.second < second ? -1 : 1;
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "{value:(" + this.first + "," + this.second + ") parent:" + (parent == null ? "null" : "(" + parent.getFirst() + "," + parent.getSecond() + ")") + " color:" + getColor().toString() + "}";
+    }
+}
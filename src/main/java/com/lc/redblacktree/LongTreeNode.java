@@ -0,0 +1,97 @@
+package com.lc.redblacktree;
+
+/**
+ * node of RBTree，the value is a long
+ *
+ * @author lc
+ */
+public class LongTreeNode {
+    /**
+     * left node
+     */
+    private LongTreeNode left;
+    /**
+     * right node
+     */
+    private LongTreeNode right;
+    /**
+     * parent node
+     */
+    private LongTreeNode parent;
+    /**
+     * the value of a node
+     */
+    private long value;
+    /**
+     * the color of a node
+     */
+    private Color color;
+
+    /**
+     * constructor,all of the node will be initialized with the red color
+     */
+    public LongTreeNode() {
+        this.left = null;
+        this.right = null;
+        this.parent = null;
+        this.color = Color.RED;
+    }
+
+    /**
+     * constructor
+     *
+     * @param value
+     */
+    public LongTreeNode(long value) {
+        this.left = null;
+        this.right = null;
+        this.parent = null;
+        this.value = value;
+        this.color = Color.RED;
+    }
+
+    public LongTreeNode getLeft() {
+        return left;
+    }
+
+    public void setLeft(LongTreeNode left) {
+        this.left = left;
+    }
+
+    public LongTreeNode getRight() {
+        return right;
+    }
+
+    public void setRight(LongTreeNode right) {
+        this.right = right;
+    }
+
+    public LongTreeNode getParent() {
+        return parent;
+    }
+
+    public void setParent(LongTreeNode parent) {
+        this.parent = parent;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public void setColor(Color color) {
+        this.color = color;
+    }
+
+    @Override
+    public String toString() {
+        return "{value:" + this.value + " parent:" + (parent == null ? "null" : parent.getValue()) + " color:" + getColor().toString() + "}";
+    }
+}
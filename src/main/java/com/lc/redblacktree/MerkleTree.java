@@ -0,0 +1,215 @@
+package com.lc.redblacktree;
+
+/**
+ * 维护子树hash的红黑树，用于副本之间的快速对账
+ * 每个节点的aggregate是以该节点为根的子树的{@link RangeHash}，由{@link Augmentation}在插入、删除、旋转时维护，
+ * 任意[low, high]区间的指纹只需要合并O(log n)个aggregate；
+ * 子树hash是value hash之和而不是按树形状逐层拼接，因为内容相同的副本因插入顺序不同可能形状不同，这样区间指纹可以直接在副本之间比较
+ * 对账协议见{@link TreeReconciler}
+ *
+ * @author lc
+ */
+public class MerkleTree implements ReplicaPeer {
+    /**
+     * 子树的count和hash = 左子树 + 自身value（按count） + 右子树
+     */
+    private static final Augmentation AUGMENTATION = new Augmentation() {
+        @Override
+        public void update(TreeNode current) {
+            RangeHash aggregate = (RangeHash) current.getAggregate();
+            if (aggregate == null) {
+                aggregate = new RangeHash();
+                current.setAggregate(aggregate);
+            }
+            aggregate.clear();
+            aggregate.merge(hashOf(current.getLeft()));
+            aggregate.add(current.getValue(), current.getCount());
+            aggregate.merge(hashOf(current.getRight()));
+        }
+    };
+
+    private final RedBlackTree tree;
+
+    public MerkleTree() {
+        this(false);
+    }
+
+    /**
+     * @param multiset 是否允许重复value，见{@link RedBlackTree#setMultiset(boolean)}
+     */
+    public MerkleTree(boolean multiset) {
+        this.tree = new RedBlackTree(AUGMENTATION);
+        this.tree.setMultiset(multiset);
+    }
+
+    public RedBlackTree getTree() {
+        return tree;
+    }
+
+    /**
+     * 插入value，不打印，见{@link RedBlackTree#tryInsert(int)}
+     *
+     * @param value
+     * @return value已存在且不是multiset模式时返回false
+     */
+    public boolean insert(int value) {
+        return tree.tryInsert(value);
+    }
+
+    /**
+     * 删除value，multiset模式下只删除一次出现，不打印，见{@link RedBlackTree#tryDelete(int)}
+     *
+     * @param value
+     * @return value不存在时返回false
+     */
+    public boolean delete(int value) {
+        return tree.tryDelete(value);
+    }
+
+    public boolean contains(int value) {
+        return tree.getNode(value) != null;
+    }
+
+    /**
+     * 树中value的个数（multiset模式下包括重复），O(1)
+     *
+     * @return
+     */
+    public int size() {
+        RangeHash hash = hashOf(tree.getRoot());
+        return hash == null ? 0 : hash.getCount();
+    }
+
+    /**
+     * @return 整棵树的指纹，O(1)
+     */
+    public RangeHash rootHash() {
+        RangeHash hash = hashOf(tree.getRoot());
+        return hash == null ? new RangeHash() : new RangeHash(hash.getCount(), hash.getHash());
+    }
+
+    /**
+     * [low, high]区间内value的指纹，O(log n)，做法与{@link RangeAggregateTree#query(int, int)}相同
+     *
+     * @param low
+     * @param high
+     * @return
+     */
+    @Override
+    public RangeHash fingerprint(int low, int high) {
+        RangeHash result = new RangeHash();
+        TreeNode split = tree.getRoot();
+        while (split != null && (split.getValue() < low || split.getValue() > high)) {
+            if (split.getValue() < low) {
+                split = split.getRight();
+            } else {
+                split = split.getLeft();
+            }
+        }
+        if (split == null) {
+            return result;
+        }
+        result.add(split.getValue(), split.getCount());
+        for (TreeNode current = split.getLeft(); current != null; ) {
+            if (current.getValue() >= low) {
+                result.add(current.getValue(), current.getCount());
+                result.merge(hashOf(current.getRight()));
+                current = current.getLeft();
+            } else {
+                current = current.getRight();
+            }
+        }
+        for (TreeNode current = split.getRight(); current != null; ) {
+            if (current.getValue() <= high) {
+                result.add(current.getValue(), current.getCount());
+                result.merge(hashOf(current.getLeft()));
+                current = current.getRight();
+            } else {
+                current = current.getLeft();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * [low, high]区间内的value，O(log n + k)
+     *
+     * @param low
+     * @param high
+     * @return
+     */
+    @Override
+    public int[] values(int low, int high) {
+        int[] data = new int[fingerprint(low, high).getCount()];
+        values(tree.getRoot(), low, high, data, 0);
+        return data;
+    }
+
+    private int values(TreeNode current, int low, int high, int[] data, int index) {
+        if (current == null) {
+            return index;
+        }
+        if (current.getValue() > low) {
+            index = values(current.getLeft(), low, high, data, index);
+        }
+        if (current.getValue() >= low && current.getValue() <= high) {
+            for (int i = 0; i < current.getCount(); i++) {
+                data[index++] = current.getValue();
+            }
+        }
+        if (current.getValue() < high) {
+            index = values(current.getRight(), low, high, data, index);
+        }
+        return index;
+    }
+
+    /**
+     * 小于value的元素个数（multiset模式下包括重复），O(log n)
+     *
+     * @param value
+     * @return
+     */
+    public int rank(int value) {
+        int rank = 0;
+        TreeNode current = tree.getRoot();
+        while (current != null) {
+            if (current.getValue() < value) {
+                RangeHash left = hashOf(current.getLeft());
+                rank += (left == null ? 0 : left.getCount()) + current.getCount();
+                current = current.getRight();
+            } else {
+                current = current.getLeft();
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 获取从小到大第index个元素（从0开始，multiset模式下包括重复），O(log n)
+     *
+     * @param index [0, size())
+     * @return
+     */
+    public int select(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size());
+        }
+        TreeNode current = tree.getRoot();
+        while (true) {
+            RangeHash left = hashOf(current.getLeft());
+            int leftCount = left == null ? 0 : left.getCount();
+            if (index < leftCount) {
+                current = current.getLeft();
+            } else if (index < leftCount + current.getCount()) {
+                return current.getValue();
+            } else {
+                index -= leftCount + current.getCount();
+                current = current.getRight();
+            }
+        }
+    }
+
+    private static RangeHash hashOf(TreeNode current) {
+        return current == null ? null : (RangeHash) current.getAggregate();
+    }
+}
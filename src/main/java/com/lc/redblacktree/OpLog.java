@@ -0,0 +1,25 @@
+package com.lc.redblacktree;
+
+/**
+ * 操作日志的二进制格式
+ * *****文件头：8字节MAGIC；
+ * *****之后每条记录固定9字节：1字节操作类型，4字节value（range时为low），4字节参数（range时为high，其余为0），大端序。
+ * 记录长度固定，回放时可以直接内存映射文件顺序读取，由{@link OpLogWriter}写入，{@link OpLogReader}读取
+ *
+ * @author lc
+ */
+public final class OpLog {
+    public static final byte INSERT = 0;
+    public static final byte DELETE = 1;
+    public static final byte GET = 2;
+    public static final byte RANGE = 3;
+
+    public static final String[] NAMES = {"insert", "delete", "get", "range"};
+
+    public static final long MAGIC = 0x5242544c4f473031L;
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 9;
+
+    private OpLog() {
+    }
+}
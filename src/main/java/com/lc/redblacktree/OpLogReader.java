@@ -0,0 +1,102 @@
+package com.lc.redblacktree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 内存映射读取{@link OpLog}格式的操作日志
+ * 单次映射不能超过2GB，因此按记录长度对齐分段映射，读完一段再映射下一段
+ * 用法：while (reader.next()) { reader.getOp(); reader.getValue(); reader.getArgument(); }
+ *
+ * @author lc
+ */
+public class OpLogReader implements Closeable {
+    /**
+     * 每段映射的记录字节数，是记录长度的整数倍，第一段额外包含文件头
+     */
+    private static final long CHUNK_SIZE = (Integer.MAX_VALUE - OpLog.HEADER_SIZE) / OpLog.RECORD_SIZE * (long) OpLog.RECORD_SIZE;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long records;
+    private long position;
+    private MappedByteBuffer buffer;
+
+    private byte op;
+    private int value;
+    private int argument;
+
+    public OpLogReader(String path) throws IOException {
+        this.file = new RandomAccessFile(path, "r");
+        this.channel = file.getChannel();
+        long size = channel.size();
+        if (size < OpLog.HEADER_SIZE || (size - OpLog.HEADER_SIZE) % OpLog.RECORD_SIZE != 0) {
+            close();
+            throw new IOException("not an op log, size " + size + ": " + path);
+        }
+        this.records = (size - OpLog.HEADER_SIZE) / OpLog.RECORD_SIZE;
+        this.position = OpLog.HEADER_SIZE;
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, OpLog.HEADER_SIZE + CHUNK_SIZE));
+        if (buffer.remaining() < OpLog.HEADER_SIZE || buffer.getLong() != OpLog.MAGIC) {
+            close();
+            throw new IOException("bad op log header: " + path);
+        }
+    }
+
+    /**
+     * 从当前位置映射下一段
+     */
+    private void mapNext() throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, channel.size() - position));
+    }
+
+    /**
+     * @return 日志中的记录条数
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * 读取下一条记录
+     *
+     * @return 已读完返回false
+     */
+    public boolean next() throws IOException {
+        if (!buffer.hasRemaining()) {
+            if (position >= channel.size()) {
+                return false;
+            }
+            mapNext();
+        }
+        op = buffer.get();
+        value = buffer.getInt();
+        argument = buffer.getInt();
+        position += OpLog.RECORD_SIZE;
+        if (op < OpLog.INSERT || op > OpLog.RANGE) {
+            throw new IOException("unknown op " + op + " at offset " + (position - OpLog.RECORD_SIZE));
+        }
+        return true;
+    }
+
+    public byte getOp() {
+        return op;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public int getArgument() {
+        return argument;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        file.close();
+    }
+}
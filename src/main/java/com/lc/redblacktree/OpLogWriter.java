@@ -0,0 +1,48 @@
+package com.lc.redblacktree;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * 顺序写入{@link OpLog}格式的操作日志，可以在线上记录真实的操作序列，之后离线回放
+ *
+ * @author lc
+ */
+public class OpLogWriter implements Closeable {
+    private final DataOutputStream out;
+
+    public OpLogWriter(String path) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+        out.writeLong(OpLog.MAGIC);
+    }
+
+    public void insert(int value) throws IOException {
+        write(OpLog.INSERT, value, 0);
+    }
+
+    public void delete(int value) throws IOException {
+        write(OpLog.DELETE, value, 0);
+    }
+
+    public void get(int value) throws IOException {
+        write(OpLog.GET, value, 0);
+    }
+
+    public void range(int low, int high) throws IOException {
+        write(OpLog.RANGE, low, high);
+    }
+
+    private void write(byte op, int value, int argument) throws IOException {
+        out.writeByte(op);
+        out.writeInt(value);
+        out.writeInt(argument);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
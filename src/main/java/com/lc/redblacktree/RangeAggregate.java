@@ -0,0 +1,106 @@
+package com.lc.redblacktree;
+
+/**
+ * 一组value的聚合：个数、和、最小值、最大值
+ * 既作为{@link RangeAggregateTree}中每个节点子树的aggregate，也作为区间查询的结果
+ *
+ * @author lc
+ */
+public class RangeAggregate {
+    /**
+     * the number of values, counting multiplicity
+     */
+    private int count;
+    /**
+     * the sum of values
+     */
+    private long sum;
+    /**
+     * the minimum value, Integer.MAX_VALUE if count is 0
+     */
+    private int min;
+    /**
+     * the maximum value, Integer.MIN_VALUE if count is 0
+     */
+    private int max;
+
+    public RangeAggregate() {
+        clear();
+    }
+
+    /**
+     * 清空为不包含任何value的聚合
+     */
+    public void clear() {
+        this.count = 0;
+        this.sum = 0;
+        this.min = Integer.MAX_VALUE;
+        this.max = Integer.MIN_VALUE;
+    }
+
+    /**
+     * 加入单个value
+     *
+     * @param value
+     */
+    public void add(int value) {
+        add(value, 1);
+    }
+
+    /**
+     * 加入出现了occurrences次的value
+     *
+     * @param value
+     * @param occurrences 正数
+     */
+    public void add(int value, int occurrences) {
+        count += occurrences;
+        sum += (long) value * occurrences;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * 合并另一个聚合，other为null时当做空集合
+     *
+     * @param other
+     */
+    public void merge(RangeAggregate other) {
+        if (other == null || other.count == 0) {
+            return;
+        }
+        count += other.count;
+        sum += other.sum;
+        if (other.min < min) {
+            min = other.min;
+        }
+        if (other.max > max) {
+            max = other.max;
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "{count:" + count + " sum:" + sum + " min:" + min + " max:" + max + "}";
+    }
+}
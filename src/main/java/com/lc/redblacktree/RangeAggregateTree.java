@@ -0,0 +1,193 @@
+package com.lc.redblacktree;
+
+/**
+ * 支持区间聚合查询的红黑树
+ * 每个节点的aggregate是以该节点为根的子树的{@link RangeAggregate}，由{@link Augmentation}在插入、删除、旋转时维护，
+ * 因此任意[low, high]区间的count/sum/min/max只需要沿两条root到叶子的路径合并O(log n)个aggregate，无需中序遍历
+ * multiset模式下每个value按其出现次数计入count和sum
+ *
+ * @author lc
+ */
+public class RangeAggregateTree {
+    /**
+     * 根据左右子树的aggregate和节点自身的value重新计算
+     */
+    private static final Augmentation AUGMENTATION = new Augmentation() {
+        @Override
+        public void update(TreeNode current) {
+            RangeAggregate aggregate = (RangeAggregate) current.getAggregate();
+            if (aggregate == null) {
+                aggregate = new RangeAggregate();
+                current.setAggregate(aggregate);
+            }
+            aggregate.clear();
+            aggregate.merge(aggregateOf(current.getLeft()));
+            aggregate.add(current.getValue(), current.getCount());
+            aggregate.merge(aggregateOf(current.getRight()));
+        }
+    };
+
+    private final RedBlackTree tree;
+
+    public RangeAggregateTree() {
+        this(false);
+    }
+
+    /**
+     * @param multiset 是否允许重复value，见{@link RedBlackTree#setMultiset(boolean)}
+     */
+    public RangeAggregateTree(boolean multiset) {
+        this.tree = new RedBlackTree(AUGMENTATION);
+        this.tree.setMultiset(multiset);
+    }
+
+    public RedBlackTree getTree() {
+        return tree;
+    }
+
+    /**
+     * 插入value，不打印，见{@link RedBlackTree#tryInsert(int)}
+     *
+     * @param value
+     * @return value已存在且不是multiset模式时返回false
+     */
+    public boolean insert(int value) {
+        return tree.tryInsert(value);
+    }
+
+    /**
+     * 删除value，multiset模式下只删除一次出现，不打印，见{@link RedBlackTree#tryDelete(int)}
+     *
+     * @param value
+     * @return value不存在时返回false
+     */
+    public boolean delete(int value) {
+        return tree.tryDelete(value);
+    }
+
+    public boolean contains(int value) {
+        return tree.getNode(value) != null;
+    }
+
+    /**
+     * @return value出现的次数
+     */
+    public int getCount(int value) {
+        return tree.getCount(value);
+    }
+
+    /**
+     * 树中value的个数（multiset模式下包括重复），O(1)
+     *
+     * @return
+     */
+    public int size() {
+        RangeAggregate aggregate = aggregateOf(tree.getRoot());
+        return aggregate == null ? 0 : aggregate.getCount();
+    }
+
+    /**
+     * 查询value在[low, high]之间的所有value的聚合，O(log n)
+     * 先找到第一个落在区间内的节点split，区间内的value就是split本身，加上split左子树中>=low的部分和右子树中<=high的部分
+     *
+     * @param low
+     * @param high
+     * @return 区间为空时返回count为0的聚合
+     */
+    public RangeAggregate query(int low, int high) {
+        RangeAggregate result = new RangeAggregate();
+        TreeNode split = tree.getRoot();
+        while (split != null && (split.getValue() < low || split.getValue() > high)) {
+            if (split.getValue() < low) {
+                split = split.getRight();
+            } else {
+                split = split.getLeft();
+            }
+        }
+        if (split == null) {
+            return result;
+        }
+        result.add(split.getValue(), split.getCount());
+        mergeNotLess(split.getLeft(), low, result);
+        mergeNotGreater(split.getRight(), high, result);
+        return result;
+    }
+
+    /**
+     * 小于value的元素个数（multiset模式下包括重复），O(log n)
+     *
+     * @param value
+     * @return
+     */
+    public int rank(int value) {
+        if (value == Integer.MIN_VALUE) {
+            return 0;
+        }
+        return count(Integer.MIN_VALUE, value - 1);
+    }
+
+    public int count(int low, int high) {
+        return query(low, high).getCount();
+    }
+
+    public long sum(int low, int high) {
+        return query(low, high).getSum();
+    }
+
+    /**
+     * @return 区间内的最小值，区间为空时返回Integer.MAX_VALUE
+     */
+    public int min(int low, int high) {
+        return query(low, high).getMin();
+    }
+
+    /**
+     * @return 区间内的最大值，区间为空时返回Integer.MIN_VALUE
+     */
+    public int max(int low, int high) {
+        return query(low, high).getMax();
+    }
+
+    /**
+     * 将current子树中所有>=low的value合并到result
+     * 节点value>=low时其右子树整体满足条件，直接合并右子树的aggregate，再向左继续；否则只需要向右
+     *
+     * @param current
+     * @param low
+     * @param result
+     */
+    private void mergeNotLess(TreeNode current, int low, RangeAggregate result) {
+        while (current != null) {
+            if (current.getValue() >= low) {
+                result.add(current.getValue(), current.getCount());
+                result.merge(aggregateOf(current.getRight()));
+                current = current.getLeft();
+            } else {
+                current = current.getRight();
+            }
+        }
+    }
+
+    /**
+     * 将current子树中所有<=high的value合并到result，mergeNotLess的镜像
+     *
+     * @param current
+     * @param high
+     * @param result
+     */
+    private void mergeNotGreater(TreeNode current, int high, RangeAggregate result) {
+        while (current != null) {
+            if (current.getValue() <= high) {
+                result.add(current.getValue(), current.getCount());
+                result.merge(aggregateOf(current.getLeft()));
+                current = current.getRight();
+            } else {
+                current = current.getLeft();
+            }
+        }
+    }
+
+    private static RangeAggregate aggregateOf(TreeNode current) {
+        return current == null ? null : (RangeAggregate) current.getAggregate();
+    }
+}
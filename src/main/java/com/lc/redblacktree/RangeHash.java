@@ -0,0 +1,101 @@
+package com.lc.redblacktree;
+
+/**
+ * 一组value的指纹：个数和hash
+ * hash是每个value的hash（按出现次数）相加取模2^64，与插入顺序和树的形状无关，
+ * 因此两个副本只要某个区间内的value相同，该区间的RangeHash就相同
+ *
+ * @author lc
+ */
+public class RangeHash {
+    /**
+     * the number of values, counting multiplicity
+     */
+    private int count;
+    /**
+     * the sum of value hashes
+     */
+    private long hash;
+
+    public RangeHash() {
+    }
+
+    public RangeHash(int count, long hash) {
+        this.count = count;
+        this.hash = hash;
+    }
+
+    public void clear() {
+        this.count = 0;
+        this.hash = 0;
+    }
+
+    /**
+     * 加入出现了occurrences次的value
+     *
+     * @param value
+     * @param occurrences
+     */
+    public void add(int value, int occurrences) {
+        count += occurrences;
+        hash += hashOf(value) * occurrences;
+    }
+
+    /**
+     * 合并另一个指纹，other为null时当做空集合
+     *
+     * @param other
+     */
+    public void merge(RangeHash other) {
+        if (other != null) {
+            count += other.count;
+            hash += other.hash;
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * murmur3的64位finalizer，使相加后的hash不易因不同的value集合而碰撞
+     *
+     * @param value
+     * @return
+     */
+    public static long hashOf(int value) {
+        long h = value ^ 0x2545F4914F6CDD1DL;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RangeHash)) {
+            return false;
+        }
+        RangeHash other = (RangeHash) o;
+        return count == other.count && hash == other.hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32)) * 31 + count;
+    }
+
+    @Override
+    public String toString() {
+        return "{count:" + count + " hash:" + Long.toHexString(hash) + "}";
+    }
+}
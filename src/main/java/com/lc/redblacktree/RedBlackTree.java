@@ -19,6 +19,22 @@ public class RedBlackTree {
      * The root of RBTree
      */
     private TreeNode root;
+    /**
+     * 节点增强钩子，为null时不维护任何aggregate
+     */
+    private Augmentation augmentation;
+    /**
+     * 查找前的否定过滤器，为null时不过滤
+     */
+    private CountingBloomFilter filter;
+    /**
+     * 修改事件流，为null时不发布事件
+     */
+    private ChangeFeed changeFeed;
+    /**
+     * 是否为multiset模式：重复插入的value只增加节点的count，不再打印提示
+     */
+    private boolean multiset;
 
     public TreeNode getRoot() {
         return root;
@@ -35,6 +51,82 @@ public class RedBlackTree {
     public RedBlackTree(TreeNode root) {
         this.root = root;
     }
+
+    public RedBlackTree(Augmentation augmentation) {
+        this.root = null;
+        this.augmentation = augmentation;
+    }
+
+    public Augmentation getAugmentation() {
+        return augmentation;
+    }
+
+    public CountingBloomFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * 设置查找前的否定过滤器，会先清空filter再放入树中已有的所有value，之后insert、delete会同步维护filter
+     * 设置之后getNode、contains、delete对不存在的value大多只需查询filter中的一条cache line，无需从root查找到叶子
+     *
+     * @param filter 为null时取消过滤
+     */
+    public void setFilter(CountingBloomFilter filter) {
+        if (filter != null) {
+            filter.clear();
+            fillFilter(getRoot(), filter);
+        }
+        this.filter = filter;
+    }
+
+    public boolean isMultiset() {
+        return multiset;
+    }
+
+    /**
+     * 设置multiset模式，只能在树为空时设置
+     * multiset模式下insert已存在的value时将其节点的count加1，delete时count减1，count减到0才真正删除节点并调整；
+     * 每次insert、delete都会发布一个事件，{@link ChangeFeed#deltaSince(long)}按集合语义合并，因此changeFeed会被标记为multiset，之后deltaSince抛出异常，
+     * multiset的副本应通过订阅逐个应用事件
+     *
+     * @param multiset
+     */
+    public void setMultiset(boolean multiset) {
+        if (getRoot() != null) {
+            throw new IllegalStateException("multiset mode can only be changed on an empty tree");
+        }
+        this.multiset = multiset;
+        if (multiset && changeFeed != null) {
+            changeFeed.markMultiset();
+        }
+    }
+
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    /**
+     * 设置修改事件流，之后每次成功的insert、delete都会发布一个事件
+     * 只有设置之后的修改会被发布，副本应先全量同步（如inOrder）再从changeFeed的当前版本开始追
+     * multiset模式下changeFeed会被标记为multiset，见{@link #setMultiset(boolean)}
+     *
+     * @param changeFeed 为null时不再发布
+     */
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        if (changeFeed != null && multiset) {
+            changeFeed.markMultiset();
+        }
+        this.changeFeed = changeFeed;
+    }
+
+    private void fillFilter(TreeNode current, CountingBloomFilter filter) {
+        if (current == null) {
+            return;
+        }
+        fillFilter(current.getLeft(), filter);
+        filter.add(current.getValue());
+        fillFilter(current.getRight(), filter);
+    }
     /*********get操作*******/
     /**
      * 根据传入的value获取对应的节点
@@ -46,9 +138,33 @@ public class RedBlackTree {
         if (getRoot() == null) {
             return null;
         }
+        if (filter != null && !filter.mightContain(value)) {
+            return null;
+        }
         return getNodeRecursive(getRoot(), value);
     }
 
+    /**
+     * 判断value是否存在
+     *
+     * @param value
+     * @return
+     */
+    public boolean contains(int value) {
+        return getNode(value) != null;
+    }
+
+    /**
+     * 获取value出现的次数，非multiset模式下为0或1
+     *
+     * @param value
+     * @return
+     */
+    public int getCount(int value) {
+        TreeNode current = getNode(value);
+        return current == null ? 0 : current.getCount();
+    }
+
     /**
      * 获取给定节点的祖父节点，前提是该节点一定存在granPa
      *
@@ -155,6 +271,7 @@ public class RedBlackTree {
     /********中序遍历获取所有的value*******/
     /**
      * 中序遍历将value放入List，利用红黑树排序
+     * multiset模式下每个value按其count重复出现
      */
     public List<Integer> inOrder() {
         List<Integer> data = new ArrayList<>();
@@ -170,7 +287,9 @@ public class RedBlackTree {
             return;
         }
         inOrder(current.getLeft(), data);
-        data.add(current.getValue());
+        for (int i = 0; i < current.getCount(); i++) {
+            data.add(current.getValue());
+        }
         inOrder(current.getRight(), data);
     }
 
@@ -182,6 +301,29 @@ public class RedBlackTree {
      * @param value
      */
     public void insert(final int value) {
+        if (!tryInsert(value)) {
+            System.out.println("已存在该Value，无需插入");
+        }
+    }
+
+    /**
+     * 插入value，不打印，只从root查找一次
+     *
+     * @param value
+     * @return value已存在且不是multiset模式时返回false
+     */
+    public boolean tryInsert(final int value) {
+        return insertNode(value) != null;
+    }
+
+    /**
+     * 插入value并返回其所在的节点，只从root查找一次，不打印
+     * 调用方可以在返回的节点上设置与value绑定的数据，再调用{@link #updatePath(TreeNode)}；插入之后的旋转不会移动value，返回的节点在下一次修改之前一直有效
+     *
+     * @param value
+     * @return value已存在且不是multiset模式时返回null；否则返回新节点，或者multiset模式下count加1之后的已有节点
+     */
+    TreeNode insertNode(final int value) {
         TreeNode current = null;
         if (getRoot() == null) {
             root = new TreeNode(value);
@@ -192,8 +334,18 @@ public class RedBlackTree {
             while (temp != null) {
                 parent = temp;
                 if (temp.getValue() == value) {
-                    System.out.println("已存在该Value，无需插入");
-                    return;
+                    if (multiset) {
+                        /**
+                         * 只增加count，结构不变，但count参与aggregate的计算
+                         */
+                        temp.setCount(temp.getCount() + 1);
+                        updatePath(temp);
+                        if (changeFeed != null) {
+                            changeFeed.publish(ChangeType.INSERT, value);
+                        }
+                        return temp;
+                    }
+                    return null;
                 } else if (temp.getValue() > value) {
                     temp = temp.getLeft();
                 } else {
@@ -212,10 +364,24 @@ public class RedBlackTree {
              */
             current.setParent(parent);
         }
+        if (filter != null) {
+            filter.add(value);
+        }
+        /**
+         * 新节点到root路径上所有节点的子树都发生了变化，先更新aggregate，之后的旋转只需要局部更新
+         */
+        updatePath(current);
         /**
          * 调整颜色或者旋转,如果不调用adjust，就是一般的二叉查找树
          */
         adjust_insert(current);
+        /**
+         * 修改完成之后再发布：publish可能因背压等待，不能让订阅者看到尚未完成的修改
+         */
+        if (changeFeed != null) {
+            changeFeed.publish(ChangeType.INSERT, value);
+        }
+        return current;
     }
 
     /**
@@ -324,14 +490,52 @@ public class RedBlackTree {
      * @param value
      */
     public void delete(final int value) {
-        /**
-         * 红黑树中，如果一个black节点只有一个非空子节点，那一定只有一种情况就是该节点是black，child为red，child子节点都为null
-         */
+        if (!tryDelete(value)) {
+            System.out.println("不存在该value，无法删除");
+        }
+    }
+
+    /**
+     * 删除value，不打印，只从root查找一次
+     *
+     * @param value
+     * @return value不存在时返回false
+     */
+    public boolean tryDelete(final int value) {
         TreeNode current = getNode(value);
         if (current == null) {
-            System.out.println("不存在该value，无法删除");
+            return false;
+        }
+        deleteNode(current);
+        /**
+         * 修改完成之后再发布，见insertNode
+         */
+        if (changeFeed != null) {
+            changeFeed.publish(ChangeType.DELETE, value);
+        }
+        return true;
+    }
+
+    /**
+     * 删除current上的value，multiset模式下只减少一次出现
+     *
+     * @param current 非null
+     */
+    private void deleteNode(TreeNode current) {
+        /**
+         * multiset模式下value还有多次出现，只减少count
+         */
+        if (multiset && current.getCount() > 1) {
+            current.setCount(current.getCount() - 1);
+            updatePath(current);
             return;
         }
+        if (filter != null) {
+            filter.remove(current.getValue());
+        }
+        /**
+         * 红黑树中，如果一个black节点只有一个非空子节点，那一定只有一种情况就是该节点是black，child为red，child子节点都为null
+         */
         /**
          * current的左右节点都不为null，则找到current左子树中最大的节点
          * 执行完之后，此时current执行将被删除的节点，至多有一个非叶子节点
@@ -343,6 +547,9 @@ public class RedBlackTree {
                 temp = temp.getRight();
             }
             current.setValue(temp.getValue());
+            current.setCount(temp.getCount());
+            //aggregate中可能保存了跟value绑定的数据，随value一起移动，派生数据在删除temp之后沿路径重新计算
+            current.setAggregate(temp.getAggregate());
             current = temp;
         }
         /**
@@ -410,6 +617,7 @@ public class RedBlackTree {
                 child.setParent(parent);
             }
             setNull(current);
+            updatePath(parent);
             return true;
         }
         /**
@@ -431,6 +639,7 @@ public class RedBlackTree {
                 }
             }
             setNull(current);
+            updatePath(parent);
             return true;
         }
         return false;
@@ -508,7 +717,7 @@ public class RedBlackTree {
             sibling.setColor(parent.getColor());
             parent.setColor(Color.RED);
             rotateLeft(sibling);
-            adjust_delete(current, parent, sibling.getLeft(), true);
+            adjust_delete(current, parent, parent.getRight(), true);
             return;
         }
         /**
@@ -518,7 +727,7 @@ public class RedBlackTree {
             sibling.setColor(parent.getColor());
             parent.setColor(Color.RED);
             rotateRight(sibling);
-            adjust_delete(current, parent, sibling.getRight(), false);
+            adjust_delete(current, parent, parent.getLeft(), false);
             return;
         }
         /**
@@ -579,6 +788,7 @@ public class RedBlackTree {
             child.setParent(parent);
         }
         setNull(current);
+        updatePath(parent);
         return child;
     }
 
@@ -617,6 +827,11 @@ public class RedBlackTree {
                 grandpa.setLeft(current);
             }
         }
+        /**
+         * 旋转只改变parent和current的子树，先更新下层的parent再更新current，grandpa的子树集合不变
+         */
+        updateNode(parent);
+        updateNode(current);
     }
 
     /**
@@ -650,6 +865,39 @@ public class RedBlackTree {
                 grandpa.setLeft(current);
             }
         }
+        /**
+         * 旋转只改变parent和current的子树，先更新下层的parent再更新current，grandpa的子树集合不变
+         */
+        updateNode(parent);
+        updateNode(current);
+    }
+
+    /*********************aggregate维护***********************/
+    /**
+     * 重新计算单个节点的aggregate，前提是其左右子节点的aggregate已经是最新的
+     *
+     * @param current
+     */
+    private void updateNode(TreeNode current) {
+        if (augmentation != null && current != null) {
+            augmentation.update(current);
+        }
+    }
+
+    /**
+     * 从current开始向上直到root，依次重新计算aggregate
+     * 节点本身的增强数据（如区间的end）被修改后也需要调用此方法
+     *
+     * @param current
+     */
+    public void updatePath(TreeNode current) {
+        if (augmentation == null) {
+            return;
+        }
+        while (current != null) {
+            augmentation.update(current);
+            current = current.getParent();
+        }
     }
 
     /**
@@ -0,0 +1,386 @@
+package com.lc.redblacktree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多线程访问红黑树的服务前端，采用flat combining（单写者合并）
+ * *****写操作（insert/delete）先放入无锁队列，调用方随即尝试成为combiner；
+ * *****抢到combiner的线程一次取出一批操作顺序作用到树上，其余线程不阻塞，直接拿到CompletableFuture返回；
+ * *****一次调用最多处理MAX_ROUNDS批，之后仍有积压时交给executor中的drain任务继续处理，持续有其他线程入队时调用方也能在有限时间内返回；
+ * *****快照读（contains/inOrder）不进队列，直接在最近发布的有序数组快照上二分查找，不与写者竞争；
+ * *****生成快照是O(n)的，因此只在累计修改数超过size/64，或者有未发布的修改且距上次发布超过发布间隔时重新生成；
+ * *****发布间隔至少1毫秒，并且不小于上次生成快照耗时的4倍，生成快照最多占用约1/5的时间；
+ * *****写操作停止之后，下一次快照读发现有未发布的修改且已超过发布间隔时自己发布，因此快照不会一直落后；
+ * *****size直接返回所有已完成写操作之后的大小，不依赖快照；需要读到自己写入的调用方使用containsAsync，它和写操作一起在combiner中按序执行。
+ * 同一时刻只有一个线程修改树，RedBlackTree本身无需任何锁。
+ * 调用方除了有限批次的合并之外从不阻塞，因此大量虚拟线程作为客户端时不会长时间占用载体线程；
+ * future在combiner线程或者executor的线程上完成，耗时的后续处理应使用thenXxxAsync
+ *
+ * @author lc
+ */
+public class RedBlackTreeService {
+    /**
+     * 默认每批最多合并的操作数
+     */
+    public static final int DEFAULT_MAX_BATCH = 1024;
+
+    /**
+     * 一次combine最多处理的批数，剩余的操作交给drain任务，避免combiner线程长时间得不到返回
+     */
+    private static final int MAX_ROUNDS = 4;
+
+    /**
+     * 快照的最小发布间隔，1毫秒
+     */
+    private static final long MIN_PUBLISH_INTERVAL = 1000000L;
+
+    /**
+     * 累计修改数超过size >> SNAPSHOT_SHIFT时重新生成快照
+     */
+    private static final int SNAPSHOT_SHIFT = 6;
+
+    private static final int INSERT = 0;
+    private static final int DELETE = 1;
+    private static final int CONTAINS = 2;
+
+    /**
+     * 队列中的一个操作
+     */
+    private static final class Operation {
+        private final int type;
+        private final int value;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        /**
+         * apply的结果，释放combiner之后再用来完成future
+         */
+        private boolean result;
+        private RuntimeException error;
+        /**
+         * 是否已经作用到树上，result或error有效
+         */
+        private boolean applied;
+
+        private Operation(int type, int value) {
+            this.type = type;
+            this.value = value;
+        }
+    }
+
+    /**
+     * 只由持有combiner的线程访问
+     */
+    private final RedBlackTree tree;
+    private int size;
+    /**
+     * 上次生成快照之后的修改数
+     */
+    private int dirty;
+
+    private final int maxBatch;
+    private final ConcurrentLinkedQueue<Operation> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean combining = new AtomicBoolean(false);
+    /**
+     * 处理积压操作的线程池，以及是否已经提交了drain任务
+     */
+    private final Executor executor;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drainScheduled.set(false);
+            combine();
+        }
+    };
+    /**
+     * 最近一次发布的有序快照，只读
+     */
+    private volatile int[] snapshot = new int[0];
+    /**
+     * 是否有未发布到快照的修改，上次发布的时间，以及下次允许按时间发布的间隔，由combiner写入，读者读取
+     */
+    private volatile boolean stale;
+    private volatile long publishedAt = System.nanoTime();
+    private volatile long publishInterval = MIN_PUBLISH_INTERVAL;
+    /**
+     * 所有已完成写操作之后的大小，每批之后由combiner发布
+     */
+    private volatile int currentSize;
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong operationCount = new AtomicLong();
+
+    public RedBlackTreeService() {
+        this(DEFAULT_MAX_BATCH);
+    }
+
+    public RedBlackTreeService(int maxBatch) {
+        this(maxBatch, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param maxBatch 每批最多合并的操作数
+     * @param executor 执行drain任务的线程池，combiner达到MAX_ROUNDS批之后队列中剩余的操作由它处理
+     */
+    public RedBlackTreeService(int maxBatch, Executor executor) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("maxBatch must be positive: " + maxBatch);
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor must not be null");
+        }
+        this.tree = new RedBlackTree();
+        this.maxBatch = maxBatch;
+        this.executor = executor;
+    }
+
+    /*********写操作*******/
+    /**
+     * 异步插入
+     *
+     * @param value
+     * @return 插入成功为true，value已存在为false
+     */
+    public CompletableFuture<Boolean> insert(int value) {
+        return submit(new Operation(INSERT, value));
+    }
+
+    /**
+     * 异步删除
+     *
+     * @param value
+     * @return 删除成功为true，value不存在为false
+     */
+    public CompletableFuture<Boolean> delete(int value) {
+        return submit(new Operation(DELETE, value));
+    }
+
+    /**
+     * 异步查询，与写操作一起按序执行，能看到之前所有已完成的写操作
+     *
+     * @param value
+     * @return 存在为true
+     */
+    public CompletableFuture<Boolean> containsAsync(int value) {
+        return submit(new Operation(CONTAINS, value));
+    }
+
+    private CompletableFuture<Boolean> submit(Operation operation) {
+        queue.offer(operation);
+        combine();
+        return operation.future;
+    }
+
+    /**
+     * 尝试成为combiner并处理队列，最多处理MAX_ROUNDS批，之后仍有积压时提交drain任务
+     * 释放combiner之后必须再检查一次队列：其他线程可能在我们处理期间入队，并且因为抢不到combiner已经返回
+     */
+    private void combine() {
+        for (int rounds = 0; !queue.isEmpty(); rounds++) {
+            if (rounds == MAX_ROUNDS) {
+                scheduleDrain();
+                return;
+            }
+            if (!combining.compareAndSet(false, true)) {
+                return;
+            }
+            List<Operation> batch = new ArrayList<>(Math.min(maxBatch, 64));
+            Throwable failure = null;
+            try {
+                Operation operation;
+                while (batch.size() < maxBatch && (operation = queue.poll()) != null) {
+                    batch.add(operation);
+                }
+                dirty += apply(batch);
+                currentSize = size;
+                if (dirty > size >> SNAPSHOT_SHIFT || (dirty > 0 && queue.isEmpty() && publishDue())) {
+                    publish();
+                } else if (dirty > 0) {
+                    stale = true;
+                }
+                batchCount.incrementAndGet();
+                operationCount.addAndGet(batch.size());
+            } catch (Throwable e) {
+                failure = e;
+                throw e;
+            } finally {
+                combining.set(false);
+                /**
+                 * 在释放combiner之后完成future，避免回调占用combiner
+                 * apply没有捕获的Error（例如生成快照时的OutOfMemoryError）会继续抛出，已取出的操作不会再被处理，
+                 * 必须在抛出之前完成它们的future，否则等待这些future的调用方会一直阻塞
+                 */
+                complete(batch, failure);
+            }
+        }
+    }
+
+    /**
+     * 完成一批操作的future
+     *
+     * @param batch
+     * @param failure combiner抛出的异常，没有时为null；未作用到树上的操作以它为原因异常完成
+     */
+    private void complete(List<Operation> batch, Throwable failure) {
+        for (Operation operation : batch) {
+            if (!operation.applied) {
+                operation.future.completeExceptionally(new IllegalStateException("the combiner failed before this operation was applied", failure));
+            } else if (operation.error != null) {
+                operation.future.completeExceptionally(operation.error);
+            } else {
+                operation.future.complete(operation.result);
+            }
+        }
+    }
+
+    /**
+     * 提交drain任务，已经提交且尚未开始执行时不重复提交
+     */
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(drainTask);
+            } catch (RuntimeException e) {
+                //未提交成功，积压的操作由下一个调用方处理
+                drainScheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private boolean publishDue() {
+        return System.nanoTime() - publishedAt >= publishInterval;
+    }
+
+    /**
+     * 生成并发布快照，只能在持有combiner时调用
+     */
+    private void publish() {
+        long begin = System.nanoTime();
+        snapshot = buildSnapshot();
+        dirty = 0;
+        long now = System.nanoTime();
+        publishInterval = Math.max(MIN_PUBLISH_INTERVAL, (now - begin) * 4);
+        publishedAt = now;
+        stale = false;
+    }
+
+    /**
+     * 将一批操作按入队顺序作用到树上，单个操作失败只影响其自身的future
+     *
+     * @param batch
+     * @return 修改了树的操作数
+     */
+    private int apply(List<Operation> batch) {
+        int modified = 0;
+        for (Operation operation : batch) {
+            try {
+                boolean result;
+                if (operation.type == INSERT) {
+                    result = tree.tryInsert(operation.value);
+                    if (result) {
+                        size++;
+                        modified++;
+                    }
+                } else if (operation.type == DELETE) {
+                    result = tree.tryDelete(operation.value);
+                    if (result) {
+                        size--;
+                        modified++;
+                    }
+                } else {
+                    result = tree.contains(operation.value);
+                }
+                operation.result = result;
+            } catch (RuntimeException e) {
+                operation.error = e;
+            }
+            operation.applied = true;
+        }
+        return modified;
+    }
+
+    /**
+     * 中序遍历生成有序数组快照，O(n)
+     *
+     * @return
+     */
+    private int[] buildSnapshot() {
+        int[] data = new int[size];
+        fill(tree.getRoot(), data, 0);
+        return data;
+    }
+
+    private int fill(TreeNode current, int[] data, int index) {
+        if (current == null) {
+            return index;
+        }
+        index = fill(current.getLeft(), data, index);
+        data[index++] = current.getValue();
+        return fill(current.getRight(), data, index);
+    }
+
+    /*********读操作，基于快照*******/
+    public boolean contains(int value) {
+        return Arrays.binarySearch(snapshot(), value) >= 0;
+    }
+
+    /**
+     * @return 所有已完成写操作之后的大小，不依赖快照
+     */
+    public int size() {
+        return currentSize;
+    }
+
+    public List<Integer> inOrder() {
+        int[] data = snapshot();
+        List<Integer> result = new ArrayList<>(data.length);
+        for (int value : data) {
+            result.add(value);
+        }
+        return result;
+    }
+
+    /**
+     * 获取快照，有未发布的修改且已超过发布间隔时先尝试发布
+     * 抢不到combiner说明有combiner正在运行，它离开时会按同样的条件发布，本次读取仍使用旧快照
+     *
+     * @return
+     */
+    private int[] snapshot() {
+        if (stale && publishDue() && combining.compareAndSet(false, true)) {
+            try {
+                if (dirty > 0) {
+                    publish();
+                }
+            } finally {
+                combining.set(false);
+            }
+            //持有combiner期间入队的操作
+            combine();
+        }
+        return snapshot;
+    }
+
+    /*********统计*******/
+    /**
+     * @return 已处理的批次数
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return 已处理的队列操作数
+     */
+    public long getOperationCount() {
+        return operationCount.get();
+    }
+}
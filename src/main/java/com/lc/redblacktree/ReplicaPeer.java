@@ -0,0 +1,18 @@
+package com.lc.redblacktree;
+
+/**
+ * 对账时对端副本需要提供的操作，实际部署时由RPC实现，本地测试时直接使用另一棵{@link MerkleTree}
+ *
+ * @author lc
+ */
+public interface ReplicaPeer {
+    /**
+     * @return [low, high]区间内value的指纹
+     */
+    RangeHash fingerprint(int low, int high);
+
+    /**
+     * @return [low, high]区间内的value，升序，multiset模式下重复出现的value重复列出
+     */
+    int[] values(int low, int high);
+}
@@ -0,0 +1,92 @@
+package com.lc.redblacktree;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RedBlackTreeService}的压测程序
+ * 参数：客户端数 每个客户端的操作数 key范围 写操作比例(0~100) maxBatch
+ * 例如：java com.lc.redblacktree.ServiceBenchmark 100000 100 1000000 20 1024
+ * 运行在有虚拟线程的JVM上时每个客户端一个虚拟线程，否则退化为固定大小的平台线程池
+ *
+ * @author lc
+ */
+public class ServiceBenchmark {
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int opsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int keyRange = args.length > 2 ? Integer.parseInt(args[2]) : 1000000;
+        int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        int maxBatch = args.length > 4 ? Integer.parseInt(args[4]) : RedBlackTreeService.DEFAULT_MAX_BATCH;
+
+        final RedBlackTreeService service = new RedBlackTreeService(maxBatch);
+        //预先填充一半的key
+        Random random = new Random(42);
+        for (int i = 0; i < keyRange / 2; i++) {
+            service.insert(random.nextInt(keyRange));
+        }
+        long batchesBefore = service.getBatchCount();
+        long writesBefore = service.getOperationCount();
+
+        ExecutorService executor = newClientExecutor();
+        final CountDownLatch done = new CountDownLatch(clients);
+        final AtomicLong hits = new AtomicLong();
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            final long seed = c;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Random r = new Random(seed);
+                    long localHits = 0;
+                    for (int i = 0; i < opsPerClient; i++) {
+                        int value = r.nextInt(keyRange);
+                        int op = r.nextInt(100);
+                        if (op < writePercent / 2) {
+                            service.insert(value).join();
+                        } else if (op < writePercent) {
+                            service.delete(value).join();
+                        } else if (service.contains(value)) {
+                            localHits++;
+                        }
+                    }
+                    hits.addAndGet(localHits);
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        long totalOps = (long) clients * opsPerClient;
+        long writes = service.getOperationCount() - writesBefore;
+        long batches = service.getBatchCount() - batchesBefore;
+        System.out.println("executor:        " + executor.getClass().getSimpleName());
+        System.out.println("clients:         " + clients);
+        System.out.println("operations:      " + totalOps + " (writes " + writes + ", read hits " + hits.get() + ")");
+        System.out.println("elapsed:         " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+        System.out.println("throughput:      " + (long) (totalOps / (elapsed / 1e9)) + " ops/s");
+        System.out.println("batches:         " + batches);
+        System.out.println("avg batch size:  " + (batches == 0 ? 0 : (double) writes / batches));
+        System.out.println("final size:      " + service.size());
+    }
+
+    /**
+     * 优先使用虚拟线程（Java 21+），当前编译级别下只能通过反射获取
+     *
+     * @return
+     */
+    private static ExecutorService newClientExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+}
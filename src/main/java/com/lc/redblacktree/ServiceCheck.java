@@ -0,0 +1,96 @@
+package com.lc.redblacktree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link RedBlackTreeService}的并发自检
+ * 每个客户端线程只操作自己的一组value（value % threads == 线程编号），因此每个future的结果都可以用该线程自己的TreeSet确定；
+ * 每次写操作之后用containsAsync确认能读到自己的写入，一部分写操作不等待结果，以制造积压、触发drain任务；
+ * 全部完成后校验size立即准确，空闲超过发布间隔之后快照读与所有线程的TreeSet合并结果一致
+ * 用法：ServiceCheck [threads] [operations per thread]，maxBatch为1时几乎每次合并都会用满MAX_ROUNDS，任一检查失败时抛出IllegalStateException
+ *
+ * @author lc
+ */
+public class ServiceCheck {
+    private static final int[] MAX_BATCHES = {1, RedBlackTreeService.DEFAULT_MAX_BATCH};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+        for (int maxBatch : MAX_BATCHES) {
+            check(threads, operations, maxBatch);
+        }
+        System.out.println("all checks passed");
+    }
+
+    private static void check(final int threads, final int operations, int maxBatch) throws Exception {
+        final RedBlackTreeService service = new RedBlackTreeService(maxBatch);
+        final List<TreeSet<Integer>> expected = new ArrayList<>();
+        final RuntimeException[] failures = new RuntimeException[threads];
+        Thread[] clients = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            final TreeSet<Integer> own = new TreeSet<>();
+            expected.add(own);
+            clients[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        runClient(service, id, threads, operations, own);
+                    } catch (RuntimeException e) {
+                        failures[id] = e;
+                    }
+                }
+            });
+            clients[t].start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        for (RuntimeException failure : failures) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        TreeSet<Integer> all = new TreeSet<>();
+        for (TreeSet<Integer> own : expected) {
+            all.addAll(own);
+        }
+        TreeCheck.check(service.size() == all.size(), "size " + service.size() + ", expected " + all.size());
+        //超过发布间隔之后的第一次快照读会发布剩余的修改
+        Thread.sleep(50);
+        TreeCheck.check(service.inOrder().equals(new ArrayList<>(all)), "snapshot after idle");
+        for (int value = 0; value < threads * 64; value++) {
+            TreeCheck.check(service.contains(value) == all.contains(value), "contains " + value + " after idle");
+        }
+        System.out.println("RedBlackTreeService ok, maxBatch " + maxBatch + ", size " + all.size()
+                + ", batches " + service.getBatchCount() + ", operations " + service.getOperationCount());
+    }
+
+    private static void runClient(RedBlackTreeService service, int id, int threads, int operations, TreeSet<Integer> own) {
+        Random random = new Random(id);
+        List<CompletableFuture<Boolean>> pending = new ArrayList<>();
+        List<Boolean> pendingExpected = new ArrayList<>();
+        for (int i = 0; i < operations; i++) {
+            int value = random.nextInt(64) * threads + id;
+            boolean insert = random.nextBoolean();
+            CompletableFuture<Boolean> future = insert ? service.insert(value) : service.delete(value);
+            boolean result = insert ? own.add(value) : own.remove(value);
+            if (random.nextInt(4) == 0) {
+                pending.add(future);
+                pendingExpected.add(result);
+                continue;
+            }
+            TreeCheck.check(future.join() == result, (insert ? "insert " : "delete ") + value);
+            TreeCheck.check(service.containsAsync(value).join() == own.contains(value), "containsAsync " + value);
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            TreeCheck.check(pending.get(i).join() == pendingExpected.get(i), "pending operation " + i);
+        }
+    }
+}
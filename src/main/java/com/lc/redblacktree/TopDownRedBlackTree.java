@@ -0,0 +1,285 @@
+package com.lc.redblacktree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author lc
+ * 自顶向下（top-down）的红黑树写引擎，与{@link RedBlackTree}的性质相同，区别在于调整的方式
+ * *****RedBlackTree先查找到底再沿parent指针向上调整（adjust_insert/adjust_delete），一次写操作要在root路径上来回走两到三次；
+ * *****TopDownRedBlackTree在向下查找的同时完成所有调整，一次写操作只从root走到叶子一次，不需要parent指针也不需要递归。
+ * 插入：向下遇到两个子节点都为red的节点（2-3-4树中的4-节点）就做颜色翻转将其分裂，翻转如果造成连续的red节点则立即用单旋转或双旋转修正，
+ * 这样到达叶子时父节点一定不是4-节点，新插入的red节点最多只需要一次修正。
+ * 删除：向下时保证当前节点q或者其子节点为red（把red“推”下去），到达叶子时q一定是red，可以直接删除；
+ * 被删除的value所在节点f与路径末端的节点q（f的前驱）交换value，再摘除q。
+ * 参考：Julienne Walker, Red Black Trees (Eternally Confuzzled)；Weiss, Data Structures and Algorithm Analysis
+ * 所有操作借助一个伪根节点header，header的右子节点即为root，这样root也可以像普通节点一样被旋转替换
+ */
+public class TopDownRedBlackTree {
+    /**
+     * The root of RBTree
+     */
+    private TopDownTreeNode root;
+    /**
+     * 伪根节点，每次写操作复用，避免额外的分配
+     */
+    private final TopDownTreeNode header = new TopDownTreeNode();
+
+    public TopDownTreeNode getRoot() {
+        return root;
+    }
+
+    public TopDownRedBlackTree() {
+        this.root = null;
+    }
+
+    /*********get操作*******/
+    /**
+     * 根据传入的value获取对应的节点
+     *
+     * @param value
+     * @return
+     */
+    public TopDownTreeNode getNode(int value) {
+        TopDownTreeNode current = root;
+        while (current != null) {
+            if (current.getValue() == value) {
+                return current;
+            }
+            current = current.getChild(current.getValue() < value);
+        }
+        return null;
+    }
+
+    /**
+     * 获取树高度，定义只有一个节点时为高度1
+     *
+     * @return
+     */
+    public int getHeight() {
+        return getHeight(root);
+    }
+
+    private int getHeight(TopDownTreeNode current) {
+        if (current == null) {
+            return 0;
+        }
+        int leftHeight = getHeight(current.getLeft());
+        int rightHeight = getHeight(current.getRight());
+        return (leftHeight > rightHeight ? leftHeight : rightHeight) + 1;
+    }
+
+    /********中序遍历获取所有的value*******/
+    /**
+     * 中序遍历将value放入List，利用红黑树排序
+     */
+    public List<Integer> inOrder() {
+        List<Integer> data = new ArrayList<>();
+        inOrder(root, data);
+        return data;
+    }
+
+    private void inOrder(TopDownTreeNode current, List<Integer> data) {
+        if (current == null) {
+            return;
+        }
+        inOrder(current.getLeft(), data);
+        data.add(current.getValue());
+        inOrder(current.getRight(), data);
+    }
+
+    /******************insert操作********************************/
+    /**
+     * 单次自顶向下插入
+     * q为当前节点，p为父节点，g为祖父节点，t为曾祖父节点（旋转之后需要由t指向新的子树根）
+     * *****q为null：到达插入位置，创建red节点挂到p下；
+     * *****q的两个子节点都为red：颜色翻转，q置为red，两个子节点置为black；
+     * *****q和p都为red（新插入或颜色翻转造成）：q与p同方向时对g单旋转，否则双旋转；
+     * *****q的value与插入value相等：结束。
+     * 如果value已存在，路径上可能已经做过颜色翻转和旋转，但都保持红黑树性质
+     *
+     * @param value
+     * @return 插入成功返回true，value已存在返回false
+     */
+    public boolean insert(final int value) {
+        if (root == null) {
+            root = new TopDownTreeNode(value);
+            root.setColor(Color.BLACK);
+            return true;
+        }
+        boolean inserted = false;
+        TopDownTreeNode head = resetHeader();
+        head.setRight(root);
+        TopDownTreeNode t = head;
+        TopDownTreeNode g = null;
+        TopDownTreeNode p = null;
+        TopDownTreeNode q = root;
+        boolean dir = false;
+        boolean last = false;
+        while (true) {
+            if (q == null) {
+                q = new TopDownTreeNode(value);
+                p.setChild(dir, q);
+                inserted = true;
+            } else if (isRed(q.getLeft()) && isRed(q.getRight())) {
+                /**
+                 * 分裂4-节点
+                 */
+                q.setColor(Color.RED);
+                q.getLeft().setColor(Color.BLACK);
+                q.getRight().setColor(Color.BLACK);
+            }
+            /**
+             * 修正连续的red节点，p为red则g一定存在（root为black）
+             */
+            if (isRed(q) && isRed(p)) {
+                boolean dir2 = t.getRight() == g;
+                if (q == p.getChild(last)) {
+                    t.setChild(dir2, rotateSingle(g, !last));
+                } else {
+                    t.setChild(dir2, rotateDouble(g, !last));
+                }
+            }
+            if (q.getValue() == value) {
+                break;
+            }
+            last = dir;
+            dir = q.getValue() < value;
+            if (g != null) {
+                t = g;
+            }
+            g = p;
+            p = q;
+            q = q.getChild(dir);
+        }
+        root = head.getRight();
+        root.setColor(Color.BLACK);
+        resetHeader();
+        return inserted;
+    }
+
+    /*********************删除操作*****************************/
+    /**
+     * 单次自顶向下删除
+     * 沿着value的方向向下（相等时向左，从而找到前驱），f记录value所在节点，q最终停在路径末端（至多一个非空子节点）
+     * 每向下一步，如果q和q在前进方向上的子节点都为black，就把red推到q上：
+     * *****q的另一个子节点为red：以该子节点为中心旋转，q变为red；
+     * *****q的另一个子节点为black，q的兄弟s的两个子节点都为black：颜色翻转，p置为black，q和s置为red；
+     * *****q的另一个子节点为black，s有red子节点：对p做单旋转或双旋转，并重新着色，q变为red。
+     * 到达末端时q一定是red（或为root），直接用f保存q的value并摘除q，不需要任何向上的调整
+     *
+     * @param value
+     * @return 删除成功返回true，value不存在返回false
+     */
+    public boolean delete(final int value) {
+        if (root == null) {
+            return false;
+        }
+        TopDownTreeNode head = resetHeader();
+        head.setRight(root);
+        TopDownTreeNode q = head;
+        TopDownTreeNode p = null;
+        TopDownTreeNode g = null;
+        TopDownTreeNode f = null;
+        boolean dir = true;
+        while (q.getChild(dir) != null) {
+            boolean last = dir;
+            g = p;
+            p = q;
+            q = q.getChild(dir);
+            dir = q.getValue() < value;
+            if (q.getValue() == value) {
+                f = q;
+            }
+            if (!isRed(q) && !isRed(q.getChild(dir))) {
+                if (isRed(q.getChild(!dir))) {
+                    TopDownTreeNode temp = rotateSingle(q, dir);
+                    p.setChild(last, temp);
+                    p = temp;
+                } else {
+                    TopDownTreeNode s = p.getChild(!last);
+                    if (s != null) {
+                        if (!isRed(s.getChild(!last)) && !isRed(s.getChild(last))) {
+                            /**
+                             * 颜色翻转
+                             */
+                            p.setColor(Color.BLACK);
+                            s.setColor(Color.RED);
+                            q.setColor(Color.RED);
+                        } else {
+                            boolean dir2 = g.getRight() == p;
+                            if (isRed(s.getChild(last))) {
+                                g.setChild(dir2, rotateDouble(p, last));
+                            } else {
+                                g.setChild(dir2, rotateSingle(p, last));
+                            }
+                            /**
+                             * 旋转之后重新着色
+                             */
+                            TopDownTreeNode subRoot = g.getChild(dir2);
+                            q.setColor(Color.RED);
+                            subRoot.setColor(Color.RED);
+                            subRoot.getLeft().setColor(Color.BLACK);
+                            subRoot.getRight().setColor(Color.BLACK);
+                        }
+                    }
+                }
+            }
+        }
+        boolean deleted = false;
+        if (f != null) {
+            f.setValue(q.getValue());
+            p.setChild(p.getRight() == q, q.getChild(q.getLeft() == null));
+            q.setLeft(null);
+            q.setRight(null);
+            deleted = true;
+        }
+        root = head.getRight();
+        if (root != null) {
+            root.setColor(Color.BLACK);
+        }
+        resetHeader();
+        return deleted;
+    }
+
+    /*********************旋转***********************/
+    /**
+     * 以current为子树根向dir方向单旋转，旋转后原子树根置为red，新子树根置为black
+     * dir为true表示右旋转（current的左子节点上升），false表示左旋转
+     *
+     * @param current
+     * @param dir
+     * @return 旋转之后的子树根
+     */
+    private TopDownTreeNode rotateSingle(TopDownTreeNode current, boolean dir) {
+        TopDownTreeNode save = current.getChild(!dir);
+        current.setChild(!dir, save.getChild(dir));
+        save.setChild(dir, current);
+        current.setColor(Color.RED);
+        save.setColor(Color.BLACK);
+        return save;
+    }
+
+    /**
+     * 双旋转，先对current的!dir子节点向!dir方向单旋转，再对current向dir方向单旋转
+     *
+     * @param current
+     * @param dir
+     * @return 旋转之后的子树根
+     */
+    private TopDownTreeNode rotateDouble(TopDownTreeNode current, boolean dir) {
+        current.setChild(!dir, rotateSingle(current.getChild(!dir), !dir));
+        return rotateSingle(current, dir);
+    }
+
+    private TopDownTreeNode resetHeader() {
+        header.setLeft(null);
+        header.setRight(null);
+        header.setColor(Color.BLACK);
+        return header;
+    }
+
+    private boolean isRed(TopDownTreeNode current) {
+        return current != null && current.getColor() == Color.RED;
+    }
+}
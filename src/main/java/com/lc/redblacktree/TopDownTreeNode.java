@@ -0,0 +1,108 @@
+package com.lc.redblacktree;
+
+/**
+ * node of {@link TopDownRedBlackTree}，the value is an integer
+ * the top-down engine never walks upward, so the node has no parent pointer
+ *
+ * @author lc
+ */
+public class TopDownTreeNode {
+    /**
+     * left node
+     */
+    private TopDownTreeNode left;
+    /**
+     * right node
+     */
+    private TopDownTreeNode right;
+    /**
+     * the value of a node
+     */
+    private int value;
+    /**
+     * the color of a node
+     */
+    private Color color;
+
+    /**
+     * constructor,all of the node will be initialized with the red color
+     */
+    public TopDownTreeNode() {
+        this.left = null;
+        this.right = null;
+        this.color = Color.RED;
+    }
+
+    /**
+     * constructor
+     *
+     * @param value
+     */
+    public TopDownTreeNode(int value) {
+        this.left = null;
+        this.right = null;
+        this.value = value;
+        this.color = Color.RED;
+    }
+
+    public TopDownTreeNode getLeft() {
+        return left;
+    }
+
+    public void setLeft(TopDownTreeNode left) {
+        this.left = left;
+    }
+
+    public TopDownTreeNode getRight() {
+        return right;
+    }
+
+    public void setRight(TopDownTreeNode right) {
+        this.right = right;
+    }
+
+    /**
+     * 按方向获取子节点
+     *
+     * @param right true表示右子节点，false表示左子节点
+     * @return
+     */
+    public TopDownTreeNode getChild(boolean right) {
+        return right ? this.right : this.left;
+    }
+
+    /**
+     * 按方向设置子节点
+     *
+     * @param right true表示右子节点，false表示左子节点
+     * @param child
+     */
+    public void setChild(boolean right, TopDownTreeNode child) {
+        if (right) {
+            this.right = child;
+        } else {
+            this.left = child;
+        }
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public void setValue(int value) {
+        this.value = value;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public void setColor(Color color) {
+        this.color = color;
+    }
+
+    @Override
+    public String toString() {
+        return "{value:" + this.value + " color:" + getColor().toString() + "}";
+    }
+}
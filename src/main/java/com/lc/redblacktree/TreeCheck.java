@@ -0,0 +1,608 @@
+package com.lc.redblacktree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 随机操作自检，与java.util中的TreeSet/TreeMap对比每一步的结果，并在每一步之后校验红黑树性质：
+ * 根为黑色、没有连续的红色节点、每条路径的黑色节点数相同、value严格有序、parent指针一致（有parent指针的节点）
+ * 用法：TreeCheck [operations] [seed]，任一检查失败时抛出IllegalStateException
+ *
+ * @author lc
+ */
+public class TreeCheck {
+    /**
+     * 小的value范围使插入、删除频繁命中已有节点，大的范围使树更高
+     */
+    private static final int[] KEY_RANGES = {16, 1000};
+
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        for (int keyRange : KEY_RANGES) {
+            checkRedBlackTree(operations, keyRange, new Random(seed));
+            checkRangeAggregateTree(operations, keyRange, new Random(seed));
+            checkMultiset(operations, keyRange, new Random(seed));
+            checkIntervalTree(operations, keyRange, new Random(seed));
+            checkFilteredTree(operations, keyRange, new Random(seed));
+            checkTopDownTree(operations, keyRange, new Random(seed));
+            checkLongTree(operations, keyRange, new Random(seed));
+            checkDoubleTree(operations, keyRange, new Random(seed));
+            checkLongPairTree(operations, keyRange, new Random(seed));
+        }
+        checkReconciler(new Random(seed));
+        checkReconcilerDuplicates();
+        System.out.println("all checks passed");
+    }
+
+    /*********RedBlackTree*******/
+    private static void checkRedBlackTree(int operations, int keyRange, Random random) {
+        RedBlackTree tree = new RedBlackTree();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < operations; i++) {
+            int value = random.nextInt(keyRange);
+            if (random.nextBoolean()) {
+                check(tree.tryInsert(value) == expected.add(value), "insert " + value);
+            } else {
+                check(tree.tryDelete(value) == expected.remove(value), "delete " + value);
+            }
+            check(tree.contains(value) == expected.contains(value), "contains " + value);
+            if (validate(i, operations, keyRange)) {
+                checkTree(tree);
+            }
+        }
+        check(tree.inOrder().equals(new ArrayList<>(expected)), "inOrder");
+        System.out.println("RedBlackTree ok, key range " + keyRange + ", size " + expected.size() + ", height " + tree.getHeight());
+    }
+
+    /**
+     * 校验整棵树的红黑树性质
+     *
+     * @param tree
+     */
+    static void checkTree(RedBlackTree tree) {
+        TreeNode root = tree.getRoot();
+        if (root == null) {
+            return;
+        }
+        check(root.getColor() == Color.BLACK, "root is red");
+        checkNode(root, null, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param current
+     * @param parent  current应指向的parent
+     * @param low     current的value必须大于low
+     * @param high    current的value必须小于high
+     * @return 子树的黑高度
+     */
+    private static int checkNode(TreeNode current, TreeNode parent, long low, long high) {
+        if (current == null) {
+            return 1;
+        }
+        check(current.getParent() == parent, "parent of " + current.getValue());
+        check(current.getValue() > low && current.getValue() < high, "order at " + current.getValue());
+        check(current.getCount() > 0, "count of " + current.getValue());
+        if (current.getColor() == Color.RED) {
+            check(isBlack(current.getLeft()) && isBlack(current.getRight()), "red child of red " + current.getValue());
+        }
+        int left = checkNode(current.getLeft(), current, low, current.getValue());
+        int right = checkNode(current.getRight(), current, current.getValue(), high);
+        check(left == right, "black height at " + current.getValue());
+        return left + (current.getColor() == Color.BLACK ? 1 : 0);
+    }
+
+    private static boolean isBlack(TreeNode current) {
+        return current == null || current.getColor() == Color.BLACK;
+    }
+
+    /*********CountingBloomFilter*******/
+    /**
+     * 过滤器只有一个块，key范围大时计数器大量饱和，校验饱和之后仍然没有漏判
+     */
+    private static void checkFilteredTree(int operations, int keyRange, Random random) {
+        RedBlackTree tree = new RedBlackTree();
+        CountingBloomFilter filter = CountingBloomFilter.ofBlocks(1, 3);
+        tree.setFilter(filter);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < operations; i++) {
+            int value = random.nextInt(keyRange);
+            if (random.nextBoolean()) {
+                if (expected.add(value)) {
+                    tree.insert(value);
+                }
+            } else if (expected.remove(value)) {
+                tree.delete(value);
+            }
+            int probe = random.nextInt(keyRange);
+            check(tree.contains(probe) == expected.contains(probe), "contains " + probe);
+            if (validate(i, operations, keyRange)) {
+                checkTree(tree);
+                for (int v : expected) {
+                    check(filter.mightContain(v), "false negative " + v);
+                }
+            }
+        }
+        //重新设置过滤器会按树中的value重建
+        filter = CountingBloomFilter.ofBlocks(4, 3);
+        tree.setFilter(filter);
+        for (int value = 0; value < keyRange; value++) {
+            check(tree.contains(value) == expected.contains(value), "contains " + value + " after setFilter");
+        }
+        System.out.println("RedBlackTree with CountingBloomFilter ok, key range " + keyRange + ", size " + expected.size());
+    }
+
+    /*********RangeAggregateTree*******/
+    private static void checkRangeAggregateTree(int operations, int keyRange, Random random) {
+        RangeAggregateTree tree = new RangeAggregateTree();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < operations; i++) {
+            int value = random.nextInt(keyRange);
+            if (random.nextBoolean()) {
+                check(tree.insert(value) == expected.add(value), "insert " + value);
+            } else {
+                check(tree.delete(value) == expected.remove(value), "delete " + value);
+            }
+            if (validate(i, operations, keyRange)) {
+                checkTree(tree.getTree());
+            }
+            int low = random.nextInt(keyRange);
+            int high = low + random.nextInt(keyRange / 4 + 1);
+            SortedSet<Integer> range = expected.subSet(low, true, high, true);
+            long sum = 0;
+            for (int v : range) {
+                sum += v;
+            }
+            RangeAggregate aggregate = tree.query(low, high);
+            check(aggregate.getCount() == range.size() && aggregate.getSum() == sum, "count/sum of [" + low + ", " + high + "]");
+            if (!range.isEmpty()) {
+                check(aggregate.getMin() == range.first() && aggregate.getMax() == range.last(), "min/max of [" + low + ", " + high + "]");
+            }
+            check(tree.size() == expected.size(), "size");
+        }
+        System.out.println("RangeAggregateTree ok, key range " + keyRange + ", size " + expected.size());
+    }
+
+    /*********multiset*******/
+    private static void checkMultiset(int operations, int keyRange, Random random) {
+        RangeAggregateTree tree = new RangeAggregateTree(true);
+        ChangeFeed feed = new ChangeFeed(1024);
+        tree.getTree().setChangeFeed(feed);
+        check(feed.isMultiset(), "feed attached to a multiset tree is not marked");
+        /**
+         * value -> 出现次数
+         */
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        int size = 0;
+        for (int i = 0; i < operations; i++) {
+            int value = random.nextInt(keyRange);
+            Integer count = expected.get(value);
+            //插入多于删除，使value平均出现多次
+            if (random.nextInt(5) < 3) {
+                check(tree.insert(value), "insert " + value);
+                expected.put(value, count == null ? 1 : count + 1);
+                size++;
+            } else {
+                check(tree.delete(value) == (count != null), "delete " + value);
+                if (count != null) {
+                    if (count == 1) {
+                        expected.remove(value);
+                    } else {
+                        expected.put(value, count - 1);
+                    }
+                    size--;
+                }
+            }
+            check(tree.getCount(value) == (expected.containsKey(value) ? expected.get(value) : 0), "getCount " + value);
+            check(tree.size() == size, "size");
+            if (validate(i, operations, keyRange)) {
+                checkTree(tree.getTree());
+            }
+            int low = random.nextInt(keyRange);
+            int high = low + random.nextInt(keyRange / 4 + 1);
+            int rangeCount = 0;
+            long sum = 0;
+            for (Map.Entry<Integer, Integer> entry : expected.subMap(low, true, high, true).entrySet()) {
+                rangeCount += entry.getValue();
+                sum += (long) entry.getKey() * entry.getValue();
+            }
+            RangeAggregate aggregate = tree.query(low, high);
+            check(aggregate.getCount() == rangeCount && aggregate.getSum() == sum, "count/sum of [" + low + ", " + high + "]");
+            int rank = 0;
+            for (int occurrences : expected.headMap(low, false).values()) {
+                rank += occurrences;
+            }
+            check(tree.rank(low) == rank, "rank " + low);
+        }
+        List<Integer> values = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            values.addAll(Collections.nCopies(entry.getValue(), entry.getKey()));
+        }
+        check(tree.getTree().inOrder().equals(values), "inOrder with repeated values");
+        //multiset的changeFeed不支持deltaSince
+        boolean rejected = false;
+        try {
+            feed.deltaSince(feed.getVersion());
+        } catch (IllegalStateException e) {
+            rejected = true;
+        }
+        check(rejected, "deltaSince on a multiset tree");
+        System.out.println("multiset ok, key range " + keyRange + ", size " + size + ", distinct " + expected.size());
+    }
+
+    /*********IntervalTree*******/
+    private static void checkIntervalTree(int operations, int keyRange, Random random) {
+        IntervalTree tree = new IntervalTree();
+        /**
+         * start -> 升序的end，start相同的区间可以有多个
+         */
+        TreeMap<Integer, List<Integer>> expected = new TreeMap<>();
+        int size = 0;
+        for (int i = 0; i < operations; i++) {
+            int start = random.nextInt(keyRange);
+            int end = start + random.nextInt(keyRange / 4 + 1);
+            List<Integer> ends = expected.get(start);
+            //区间个数保持在keyRange以内，使每一步的全量对比代价有界
+            if (size < keyRange && random.nextBoolean()) {
+                tree.insert(start, end);
+                if (ends == null) {
+                    ends = new ArrayList<>();
+                    expected.put(start, ends);
+                }
+                int index = Collections.binarySearch(ends, end);
+                ends.add(index < 0 ? -index - 1 : index, end);
+                size++;
+            } else {
+                //一半的删除针对已有的区间
+                if (ends != null && random.nextBoolean()) {
+                    end = ends.get(random.nextInt(ends.size()));
+                }
+                boolean removed = ends != null && ends.remove(Integer.valueOf(end));
+                if (ends != null && ends.isEmpty()) {
+                    expected.remove(start);
+                }
+                check(tree.delete(start, end) == removed, "delete [" + start + ", " + end + "]");
+                if (removed) {
+                    size--;
+                }
+            }
+            if (validate(i, operations, keyRange)) {
+                checkTree(tree.getTree());
+            }
+            check(tree.size() == size, "size");
+
+            int low = random.nextInt(keyRange);
+            int high = low + random.nextInt(keyRange / 4 + 1);
+            List<Interval> overlapping = new ArrayList<>();
+            for (Map.Entry<Integer, List<Integer>> entry : expected.headMap(high, true).entrySet()) {
+                for (int e : entry.getValue()) {
+                    if (e >= low) {
+                        overlapping.add(new Interval(entry.getKey(), e));
+                    }
+                }
+            }
+            check(tree.findOverlapping(low, high).equals(overlapping), "findOverlapping [" + low + ", " + high + "]");
+            Interval any = tree.findAnyOverlapping(low, high);
+            check(any == null ? overlapping.isEmpty() : overlapping.contains(any), "findAnyOverlapping [" + low + ", " + high + "]");
+        }
+        System.out.println("IntervalTree ok, key range " + keyRange + ", size " + size);
+    }
+
+    /*********TopDownRedBlackTree*******/
+    private static void checkTopDownTree(int operations, int keyRange, Random random) {
+        TopDownRedBlackTree tree = new TopDownRedBlackTree();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < operations; i++) {
+            int value = random.nextInt(keyRange);
+            if (random.nextBoolean()) {
+                check(tree.insert(value) == expected.add(value), "insert " + value);
+            } else {
+                check(tree.delete(value) == expected.remove(value), "delete " + value);
+            }
+            check((tree.getNode(value) != null) == expected.contains(value), "getNode " + value);
+            TopDownTreeNode root = tree.getRoot();
+            if (root != null && validate(i, operations, keyRange)) {
+                check(root.getColor() == Color.BLACK, "root is red");
+                checkNode(root, Long.MIN_VALUE, Long.MAX_VALUE);
+            }
+        }
+        check(tree.inOrder().equals(new ArrayList<>(expected)), "inOrder");
+        System.out.println("TopDownRedBlackTree ok, key range " + keyRange + ", size " + expected.size() + ", height " + tree.getHeight());
+    }
+
+    private static int checkNode(TopDownTreeNode current, long low, long high) {
+        if (current == null) {
+            return 1;
+        }
+        check(current.getValue() > low && current.getValue() < high, "order at " + current.getValue());
+        if (current.getColor() == Color.RED) {
+            check(isBlack(current.getLeft()) && isBlack(current.getRight()), "red child of red " + current.getValue());
+        }
+        int left = checkNode(current.getLeft(), low, current.getValue());
+        int right = checkNode(current.getRight(), current.getValue(), high);
+        check(left == right, "black height at " + current.getValue());
+        return left + (current.getColor() == Color.BLACK ? 1 : 0);
+    }
+
+    private static boolean isBlack(TopDownTreeNode current) {
+        return current == null || current.getColor() == Color.BLACK;
+    }
+
+    /*********LongRedBlackTree*******/
+    private static void checkLongTree(int operations, int keyRange, Random random) {
+        LongRedBlackTree tree = new LongRedBlackTree();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < operations; i++) {
+            //超出int范围的value
+            long value = (long) random.nextInt(keyRange) << 33;
+            if (random.nextBoolean()) {
+                check(tree.tryInsert(value) == expected.add(value), "insert " + value);
+            } else {
+                check(tree.tryDelete(value) == expected.remove(value), "delete " + value);
+            }
+            check(tree.contains(value) == expected.contains(value), "contains " + value);
+            if (tree.getRoot() != null && validate(i, operations, keyRange)) {
+                check(tree.getRoot().getColor() == Color.BLACK, "root is red");
+                checkNode(tree.getRoot(), null, null, null);
+            }
+        }
+        check(tree.inOrder().equals(new ArrayList<>(expected)), "inOrder");
+        System.out.println("LongRedBlackTree ok, key range " + keyRange + ", size " + expected.size());
+    }
+
+    private static int checkNode(LongTreeNode current, LongTreeNode parent, Long low, Long high) {
+        if (current == null) {
+            return 1;
+        }
+        check(current.getParent() == parent, "parent of " + current.getValue());
+        check((low == null || current.getValue() > low) && (high == null || current.getValue() < high), "order at " + current.getValue());
+        if (current.getColor() == Color.RED) {
+            check(isBlack(current.getLeft()) && isBlack(current.getRight()), "red child of red " + current.getValue());
+        }
+        int left = checkNode(current.getLeft(), current, low, current.getValue());
+        int right = checkNode(current.getRight(), current, current.getValue(), high);
+        check(left == right, "black height at " + current.getValue());
+        return left + (current.getColor() == Color.BLACK ? 1 : 0);
+    }
+
+    private static boolean isBlack(LongTreeNode current) {
+        return current == null || current.getColor() == Color.BLACK;
+    }
+
+    /*********DoubleRedBlackTree*******/
+    private static void checkDoubleTree(int operations, int keyRange, Random random) {
+        DoubleRedBlackTree tree = new DoubleRedBlackTree();
+        TreeSet<Double> expected = new TreeSet<>();
+        for (int i = 0; i < operations; i++) {
+            //包括-0.0、0.0和NaN，TreeSet<Double>与Double.compare的顺序一致
+            int key = random.nextInt(keyRange + 2);
+            double value = key == keyRange ? -0.0 : key == keyRange + 1 ? Double.NaN : (key - keyRange / 2) / 7.0;
+            if (random.nextBoolean()) {
+                check(tree.tryInsert(value) == expected.add(value), "insert " + value);
+            } else {
+                check(tree.tryDelete(value) == expected.remove(value), "delete " + value);
+            }
+            check(tree.contains(value) == expected.contains(value), "contains " + value);
+            if (tree.getRoot() != null && validate(i, operations, keyRange)) {
+                check(tree.getRoot().getColor() == Color.BLACK, "root is red");
+                checkNode(tree.getRoot(), null, null, null);
+            }
+        }
+        check(tree.inOrder().equals(new ArrayList<>(expected)), "inOrder");
+        System.out.println("DoubleRedBlackTree ok, key range " + keyRange + ", size " + expected.size());
+    }
+
+    private static int checkNode(DoubleTreeNode current, DoubleTreeNode parent, Double low, Double high) {
+        if (current == null) {
+            return 1;
+        }
+        check(current.getParent() == parent, "parent of " + current.getValue());
+        check((low == null || Double.compare(current.getValue(), low) > 0) && (high == null || Double.compare(current.getValue(), high) < 0),
+                "order at " + current.getValue());
+        if (current.getColor() == Color.RED) {
+            check(isBlack(current.getLeft()) && isBlack(current.getRight()), "red child of red " + current.getValue());
+        }
+        int left = checkNode(current.getLeft(), current, low, current.getValue());
+        int right = checkNode(current.getRight(), current, current.getValue(), high);
+        check(left == right, "black height at " + current.getValue());
+        return left + (current.getColor() == Color.BLACK ? 1 : 0);
+    }
+
+    private static boolean isBlack(DoubleTreeNode current) {
+        return current == null || current.getColor() == Color.BLACK;
+    }
+
+    /*********LongPairRedBlackTree*******/
+    private static void checkLongPairTree(int operations, int keyRange, Random random) {
+        LongPairRedBlackTree tree = new LongPairRedBlackTree();
+        //(first, second)编码为first * keyRange + second，保持字典序
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < operations; i++) {
+            long first = random.nextInt(4);
+            long second = random.nextInt(keyRange);
+            long key = first * keyRange + second;
+            if (random.nextBoolean()) {
+                check(tree.tryInsert(first, second) == expected.add(key), "insert " + first + ", " + second);
+            } else {
+                check(tree.tryDelete(first, second) == expected.remove(key), "delete " + first + ", " + second);
+            }
+            check(tree.contains(first, second) == expected.contains(key), "contains " + first + ", " + second);
+            if (tree.getRoot() != null && validate(i, operations, keyRange)) {
+                check(tree.getRoot().getColor() == Color.BLACK, "root is red");
+                checkNode(tree.getRoot(), null, null, null);
+            }
+        }
+        List<Long> actual = new ArrayList<>();
+        for (long[] pair : tree.inOrder()) {
+            actual.add(pair[0] * keyRange + pair[1]);
+        }
+        check(actual.equals(new ArrayList<>(expected)), "inOrder");
+        System.out.println("LongPairRedBlackTree ok, key range " + keyRange + ", size " + expected.size());
+    }
+
+    /**
+     * @param low  current必须大于low，null表示没有下界
+     * @param high current必须小于high，null表示没有上界
+     */
+    private static int checkNode(LongPairTreeNode current, LongPairTreeNode parent, LongPairTreeNode low, LongPairTreeNode high) {
+        if (current == null) {
+            return 1;
+        }
+        check(current.getParent() == parent, "parent of " + current);
+        check((low == null || low.compareTo(current.getFirst(), current.getSecond()) < 0)
+                && (high == null || high.compareTo(current.getFirst(), current.getSecond()) > 0), "order at " + current);
+        if (current.getColor() == Color.RED) {
+            check(isBlack(current.getLeft()) && isBlack(current.getRight()), "red child of red " + current);
+        }
+        int left = checkNode(current.getLeft(), current, low, current);
+        int right = checkNode(current.getRight(), current, current, high);
+        check(left == right, "black height at " + current);
+        return left + (current.getColor() == Color.BLACK ? 1 : 0);
+    }
+
+    private static boolean isBlack(LongPairTreeNode current) {
+        return current == null || current.getColor() == Color.BLACK;
+    }
+
+    /*********TreeReconciler*******/
+    private static final int[] DIFFERENCES = {0, 1, 10, 100, 1000};
+
+    /**
+     * 两个副本先以不同的顺序插入相同的value（树的形状不同），再对remote做d次随机修改，
+     * 对账结果必须与按出现次数逐个value比较的结果一致；value范围较小，multiset模式下同一个value会出现多次
+     */
+    private static void checkReconciler(Random random) {
+        for (boolean multiset : new boolean[]{false, true}) {
+            for (int differences : DIFFERENCES) {
+                int n = 20000;
+                int valueRange = multiset ? n / 4 : n * 4;
+                MerkleTree local = new MerkleTree(multiset);
+                MerkleTree remote = new MerkleTree(multiset);
+                TreeMap<Integer, Integer> localCounts = new TreeMap<>();
+                List<Integer> values = new ArrayList<>();
+                for (int i = 0; i < n; i++) {
+                    int value = random.nextInt(valueRange) - valueRange / 2;
+                    if (local.insert(value)) {
+                        values.add(value);
+                        addCount(localCounts, value, 1);
+                    }
+                }
+                Collections.shuffle(values, random);
+                for (int value : values) {
+                    remote.insert(value);
+                }
+                TreeMap<Integer, Integer> remoteCounts = new TreeMap<>(localCounts);
+                for (int i = 0; i < differences; i++) {
+                    if (random.nextBoolean()) {
+                        int value = random.nextInt(valueRange) - valueRange / 2;
+                        if (remote.insert(value)) {
+                            addCount(remoteCounts, value, 1);
+                        }
+                    } else {
+                        int value = values.get(random.nextInt(values.size()));
+                        if (remote.delete(value)) {
+                            addCount(remoteCounts, value, -1);
+                        }
+                    }
+                }
+                checkTree(local.getTree());
+                checkTree(remote.getTree());
+
+                List<Integer> onlyLocal = new ArrayList<>();
+                List<Integer> onlyRemote = new ArrayList<>();
+                TreeSet<Integer> all = new TreeSet<>(localCounts.keySet());
+                all.addAll(remoteCounts.keySet());
+                for (int value : all) {
+                    int l = localCounts.containsKey(value) ? localCounts.get(value) : 0;
+                    int r = remoteCounts.containsKey(value) ? remoteCounts.get(value) : 0;
+                    onlyLocal.addAll(Collections.nCopies(Math.max(0, l - r), value));
+                    onlyRemote.addAll(Collections.nCopies(Math.max(0, r - l), value));
+                }
+                TreeDiff diff = new TreeReconciler().reconcile(local, remote);
+                String name = (multiset ? "multiset" : "set") + " with " + differences + " changes";
+                check(toList(diff.getOnlyLocal()).equals(onlyLocal) && toList(diff.getOnlyRemote()).equals(onlyRemote), "reconcile " + name);
+                check(local.rootHash().equals(remote.rootHash()) == diff.isEmpty(), "rootHash " + name);
+                if (diff.isEmpty()) {
+                    check(diff.getFingerprintRequests() == 1, "identical replicas need one fingerprint, " + name);
+                }
+                System.out.println("TreeReconciler ok, " + name + ", differences found " + (onlyLocal.size() + onlyRemote.size())
+                        + ", fingerprint requests " + diff.getFingerprintRequests());
+            }
+        }
+    }
+
+    /**
+     * 同一个value出现很多次时，只比较count，不取回value：
+     * *****两边都有1000000个42，对端多一个：区间缩小到[42, 42]之后只比较count；
+     * *****本地有5个7，对端有6个7，或者5个7和1个8：都不超过leafSize，前者只比较count，后者对端的指纹与"只有7"不符，取回value逐个比较
+     */
+    private static void checkReconcilerDuplicates() {
+        MerkleTree local = new MerkleTree(true);
+        MerkleTree remote = new MerkleTree(true);
+        for (int i = 0; i < 1000000; i++) {
+            local.insert(42);
+            remote.insert(42);
+        }
+        local.insert(-1);
+        remote.insert(-1);
+        remote.insert(42);
+        TreeDiff diff = new TreeReconciler().reconcile(local, remote);
+        check(diff.getOnlyLocal().length == 0 && Arrays.equals(diff.getOnlyRemote(), new int[]{42}), "reconcile 1000000 copies");
+        check(diff.getTransferredValues() == 0, "1000000 copies transferred " + diff.getTransferredValues() + " values");
+        System.out.println("TreeReconciler ok, 1000000 copies, fingerprint requests " + diff.getFingerprintRequests()
+                + ", transferred values " + diff.getTransferredValues());
+
+        local = new MerkleTree(true);
+        remote = new MerkleTree(true);
+        for (int i = 0; i < 5; i++) {
+            local.insert(7);
+            remote.insert(7);
+        }
+        remote.insert(7);
+        diff = new TreeReconciler().reconcile(local, remote);
+        check(diff.getOnlyLocal().length == 0 && Arrays.equals(diff.getOnlyRemote(), new int[]{7}), "reconcile single-value leaf");
+        check(diff.getTransferredValues() == 0, "single-value leaf transferred " + diff.getTransferredValues() + " values");
+        remote.delete(7);
+        remote.insert(8);
+        diff = new TreeReconciler().reconcile(local, remote);
+        check(diff.getOnlyLocal().length == 0 && Arrays.equals(diff.getOnlyRemote(), new int[]{8}), "reconcile leaf with another value");
+        System.out.println("TreeReconciler ok, single-value leaf");
+    }
+
+    private static void addCount(TreeMap<Integer, Integer> counts, int value, int delta) {
+        int count = (counts.containsKey(value) ? counts.get(value) : 0) + delta;
+        if (count == 0) {
+            counts.remove(value);
+        } else {
+            counts.put(value, count);
+        }
+    }
+
+    private static List<Integer> toList(int[] values) {
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    /**
+     * 校验整棵树是O(n)的，value范围小时每一步都校验，范围大时每8步以及最后一步校验
+     */
+    private static boolean validate(int step, int operations, int keyRange) {
+        return keyRange <= 64 || (step & 7) == 0 || step == operations - 1;
+    }
+
+    static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("check failed: " + message);
+        }
+    }
+}
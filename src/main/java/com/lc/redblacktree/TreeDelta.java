@@ -0,0 +1,43 @@
+package com.lc.redblacktree;
+
+/**
+ * 两个版本之间的修改汇总，同一个value的多次修改只保留最后一次的结果
+ * 副本对upserts中的value执行插入（已存在则忽略），对removals中的value执行删除（不存在则忽略），即可从fromVersion追到toVersion
+ *
+ * @author lc
+ */
+public class TreeDelta {
+    private final long fromVersion;
+    private final long toVersion;
+    /**
+     * toVersion时存在的value，升序
+     */
+    private final int[] upserts;
+    /**
+     * toVersion时不存在的value，升序
+     */
+    private final int[] removals;
+
+    public TreeDelta(long fromVersion, long toVersion, int[] upserts, int[] removals) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.upserts = upserts;
+        this.removals = removals;
+    }
+
+    public long getFromVersion() {
+        return fromVersion;
+    }
+
+    public long getToVersion() {
+        return toVersion;
+    }
+
+    public int[] getUpserts() {
+        return upserts;
+    }
+
+    public int[] getRemovals() {
+        return removals;
+    }
+}
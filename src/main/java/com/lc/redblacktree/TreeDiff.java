@@ -0,0 +1,62 @@
+package com.lc.redblacktree;
+
+/**
+ * 一次对账的结果以及通信开销
+ * multiset模式下同一个value多出几次就重复列出几次
+ *
+ * @author lc
+ */
+public class TreeDiff {
+    /**
+     * 本地有、对端没有的value，升序
+     */
+    private final int[] onlyLocal;
+    /**
+     * 对端有、本地没有的value，升序
+     */
+    private final int[] onlyRemote;
+    /**
+     * 向对端请求区间指纹的次数
+     */
+    private final int fingerprintRequests;
+    /**
+     * 向对端请求区间value列表的次数
+     */
+    private final int valueRequests;
+    /**
+     * 对端传回的value个数
+     */
+    private final long transferredValues;
+
+    public TreeDiff(int[] onlyLocal, int[] onlyRemote, int fingerprintRequests, int valueRequests, long transferredValues) {
+        this.onlyLocal = onlyLocal;
+        this.onlyRemote = onlyRemote;
+        this.fingerprintRequests = fingerprintRequests;
+        this.valueRequests = valueRequests;
+        this.transferredValues = transferredValues;
+    }
+
+    public boolean isEmpty() {
+        return onlyLocal.length == 0 && onlyRemote.length == 0;
+    }
+
+    public int[] getOnlyLocal() {
+        return onlyLocal;
+    }
+
+    public int[] getOnlyRemote() {
+        return onlyRemote;
+    }
+
+    public int getFingerprintRequests() {
+        return fingerprintRequests;
+    }
+
+    public int getValueRequests() {
+        return valueRequests;
+    }
+
+    public long getTransferredValues() {
+        return transferredValues;
+    }
+}
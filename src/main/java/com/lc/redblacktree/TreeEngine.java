@@ -0,0 +1,37 @@
+package com.lc.redblacktree;
+
+/**
+ * 回放操作日志时使用的统一接口，屏蔽不同红黑树实现的差异，由{@link TreeEngines}创建
+ *
+ * @author lc
+ */
+public interface TreeEngine {
+    /**
+     * @return 插入成功返回true，value已存在返回false
+     */
+    boolean insert(int value);
+
+    /**
+     * @return 删除成功返回true，value不存在返回false
+     */
+    boolean delete(int value);
+
+    boolean contains(int value);
+
+    /**
+     * @return value在[low, high]之间的个数
+     */
+    int range(int low, int high);
+
+    int size();
+
+    /**
+     * 获取树高度，定义只有一个节点时为高度1
+     */
+    int height();
+
+    /**
+     * 从root到叶子路径上black节点的个数，空树为0
+     */
+    int blackHeight();
+}
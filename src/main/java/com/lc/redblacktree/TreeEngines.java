@@ -0,0 +1,206 @@
+package com.lc.redblacktree;
+
+/**
+ * 创建{@link TreeEngine}
+ * *****bottom-up：{@link RedBlackTree}，使用不打印的tryInsert/tryDelete，与top-down一样每次写操作只从root查找一次；
+ * *****top-down：{@link TopDownRedBlackTree}；
+ * *****aggregate：{@link RangeAggregateTree}，range为O(log n)，其余与bottom-up相同。
+ * bottom-up和aggregate可以附加{@link CountingBloomFilter}
+ *
+ * @author lc
+ */
+public final class TreeEngines {
+    public static final String[] NAMES = {"bottom-up", "top-down", "aggregate"};
+
+    private TreeEngines() {
+    }
+
+    /**
+     * @param name   引擎名，见NAMES
+     * @param filter 为null时不使用过滤器，top-down不支持过滤器
+     * @return
+     */
+    public static TreeEngine create(String name, CountingBloomFilter filter) {
+        if ("bottom-up".equals(name)) {
+            RedBlackTree tree = new RedBlackTree();
+            tree.setFilter(filter);
+            return new BottomUpEngine(tree);
+        }
+        if ("aggregate".equals(name)) {
+            RangeAggregateTree tree = new RangeAggregateTree();
+            tree.getTree().setFilter(filter);
+            return new AggregateEngine(tree);
+        }
+        if ("top-down".equals(name)) {
+            if (filter != null) {
+                throw new IllegalArgumentException("engine top-down does not support a filter");
+            }
+            return new TopDownEngine(new TopDownRedBlackTree());
+        }
+        throw new IllegalArgumentException("unknown engine " + name);
+    }
+
+    private static class BottomUpEngine implements TreeEngine {
+        private final RedBlackTree tree;
+        private int size;
+
+        BottomUpEngine(RedBlackTree tree) {
+            this.tree = tree;
+        }
+
+        @Override
+        public boolean insert(int value) {
+            if (tree.tryInsert(value)) {
+                size++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean delete(int value) {
+            if (tree.tryDelete(value)) {
+                size--;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean contains(int value) {
+            return tree.contains(value);
+        }
+
+        @Override
+        public int range(int low, int high) {
+            return range(tree.getRoot(), low, high);
+        }
+
+        private int range(TreeNode current, int low, int high) {
+            if (current == null) {
+                return 0;
+            }
+            int count = 0;
+            if (current.getValue() > low) {
+                count += range(current.getLeft(), low, high);
+            }
+            if (current.getValue() >= low && current.getValue() <= high) {
+                count++;
+            }
+            if (current.getValue() < high) {
+                count += range(current.getRight(), low, high);
+            }
+            return count;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int height() {
+            return tree.getHeight();
+        }
+
+        @Override
+        public int blackHeight() {
+            int blackHeight = 0;
+            for (TreeNode current = tree.getRoot(); current != null; current = current.getLeft()) {
+                if (current.getColor() == Color.BLACK) {
+                    blackHeight++;
+                }
+            }
+            return blackHeight;
+        }
+    }
+
+    private static class AggregateEngine extends BottomUpEngine {
+        private final RangeAggregateTree aggregateTree;
+
+        AggregateEngine(RangeAggregateTree aggregateTree) {
+            super(aggregateTree.getTree());
+            this.aggregateTree = aggregateTree;
+        }
+
+        @Override
+        public int range(int low, int high) {
+            return aggregateTree.count(low, high);
+        }
+    }
+
+    private static class TopDownEngine implements TreeEngine {
+        private final TopDownRedBlackTree tree;
+        private int size;
+
+        TopDownEngine(TopDownRedBlackTree tree) {
+            this.tree = tree;
+        }
+
+        @Override
+        public boolean insert(int value) {
+            if (tree.insert(value)) {
+                size++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean delete(int value) {
+            if (tree.delete(value)) {
+                size--;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean contains(int value) {
+            return tree.getNode(value) != null;
+        }
+
+        @Override
+        public int range(int low, int high) {
+            return range(tree.getRoot(), low, high);
+        }
+
+        private int range(TopDownTreeNode current, int low, int high) {
+            if (current == null) {
+                return 0;
+            }
+            int count = 0;
+            if (current.getValue() > low) {
+                count += range(current.getLeft(), low, high);
+            }
+            if (current.getValue() >= low && current.getValue() <= high) {
+                count++;
+            }
+            if (current.getValue() < high) {
+                count += range(current.getRight(), low, high);
+            }
+            return count;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int height() {
+            return tree.getHeight();
+        }
+
+        @Override
+        public int blackHeight() {
+            int blackHeight = 0;
+            for (TopDownTreeNode current = tree.getRoot(); current != null; current = current.getLeft()) {
+                if (current.getColor() == Color.BLACK) {
+                    blackHeight++;
+                }
+            }
+            return blackHeight;
+        }
+    }
+}
@@ -26,6 +26,14 @@ public class TreeNode {
      * the color of a node
      */
     private Color color;
+    /**
+     * the number of occurrences of the value, always 1 unless the tree is a multiset
+     */
+    private int count;
+    /**
+     * the augmented data of a node, maintained by {@link Augmentation}, null if the tree is not augmented
+     */
+    private Object aggregate;
 
     /**
      * constructor,all of the node will be initialized with the red color
@@ -35,6 +43,7 @@ public class TreeNode {
         this.right = null;
         this.parent = null;
         this.color = Color.RED;
+        this.count = 1;
     }
 
     /**
@@ -48,6 +57,7 @@ public class TreeNode {
         this.parent = null;
         this.value = value;
         this.color = Color.RED;
+        this.count = 1;
     }
 
     public TreeNode getLeft() {
@@ -90,6 +100,22 @@ public class TreeNode {
         this.color = color;
     }
 
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public Object getAggregate() {
+        return aggregate;
+    }
+
+    public void setAggregate(Object aggregate) {
+        this.aggregate = aggregate;
+    }
+
     @Override
     public String toString() {
         return "{value:" + this.value + " parent:" + (parent == null ? "null" : parent.getValue()) + " color:" + getColor().toString() + "}";
@@ -0,0 +1,155 @@
+package com.lc.redblacktree;
+
+import java.util.Arrays;
+
+/**
+ * 基于区间指纹的副本对账
+ * *****从整个int范围开始，比较本地和对端在该区间的{@link RangeHash}，相同则整个区间一致，不再深入；
+ * *****不同且区间内只有一个不同的value时（low == high，或者本地只有一个value且对端的指纹恰好是该value重复count次），只比较两边的count，不取回value；
+ * *****否则任一方在该区间的元素不超过leafSize时，直接取回对端的value列表与本地逐个比较；
+ * *****否则以本地在该区间的中位数为界分成两个区间分别递归，每层区间内本地元素减半，递归深度为O(log n)。
+ * 每个不一致的value最多使O(log n)层区间的指纹不同，每次指纹计算为O(log n)，因此d个差异的对账代价约为O(d log n)，
+ * 两个副本一致时只需要比较一次指纹；multiset中同一个value出现很多次时，取回的value个数也只与差异个数和leafSize有关，而与该value的出现次数无关
+ *
+ * @author lc
+ */
+public class TreeReconciler {
+    public static final int DEFAULT_LEAF_SIZE = 16;
+
+    private final int leafSize;
+
+    private int[] onlyLocal;
+    private int onlyLocalCount;
+    private int[] onlyRemote;
+    private int onlyRemoteCount;
+    private int fingerprintRequests;
+    private int valueRequests;
+    private long transferredValues;
+
+    public TreeReconciler() {
+        this(DEFAULT_LEAF_SIZE);
+    }
+
+    /**
+     * @param leafSize 区间元素不超过该值时直接比较value列表
+     */
+    public TreeReconciler(int leafSize) {
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("leafSize must be positive: " + leafSize);
+        }
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * 比较本地树和对端副本，不修改任何一方，同一个TreeReconciler不能并发调用
+     *
+     * @param local
+     * @param remote
+     * @return
+     */
+    public TreeDiff reconcile(MerkleTree local, ReplicaPeer remote) {
+        onlyLocal = new int[16];
+        onlyLocalCount = 0;
+        onlyRemote = new int[16];
+        onlyRemoteCount = 0;
+        fingerprintRequests = 0;
+        valueRequests = 0;
+        transferredValues = 0;
+        reconcile(local, remote, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        TreeDiff diff = new TreeDiff(Arrays.copyOf(onlyLocal, onlyLocalCount), Arrays.copyOf(onlyRemote, onlyRemoteCount),
+                fingerprintRequests, valueRequests, transferredValues);
+        onlyLocal = null;
+        onlyRemote = null;
+        return diff;
+    }
+
+    private void reconcile(MerkleTree local, ReplicaPeer remote, int low, int high) {
+        fingerprintRequests++;
+        RangeHash remoteHash = remote.fingerprint(low, high);
+        RangeHash localHash = local.fingerprint(low, high);
+        if (localHash.equals(remoteHash)) {
+            return;
+        }
+        int localCount = localHash.getCount();
+        int remoteCount = remoteHash.getCount();
+        if (low == high) {
+            compareCount(low, localCount, remoteCount);
+            return;
+        }
+        if (localCount <= leafSize || remoteCount <= leafSize) {
+            if (localCount > 0) {
+                int value = local.select(local.rank(low));
+                if (local.getTree().getCount(value) == localCount
+                        && remoteHash.equals(new RangeHash(remoteCount, RangeHash.hashOf(value) * remoteCount))) {
+                    compareCount(value, localCount, remoteCount);
+                    return;
+                }
+            }
+            valueRequests++;
+            int[] remoteValues = remote.values(low, high);
+            transferredValues += remoteValues.length;
+            compare(local.values(low, high), remoteValues);
+            return;
+        }
+        /**
+         * 以本地区间内的中位数split为界分成[low, split - 1]和[split, high]，split == low时（multiset中low重复很多次）改为low + 1
+         */
+        int split = local.select(local.rank(low) + localCount / 2);
+        if (split == low) {
+            split = low + 1;
+        }
+        reconcile(local, remote, low, split - 1);
+        reconcile(local, remote, split, high);
+    }
+
+    /**
+     * 区间内只有value一个不同的值，两边count之差就是差异
+     *
+     * @param value
+     * @param localCount  本地value的出现次数
+     * @param remoteCount 对端value的出现次数
+     */
+    private void compareCount(int value, int localCount, int remoteCount) {
+        for (int i = remoteCount; i < localCount; i++) {
+            addOnlyLocal(value);
+        }
+        for (int i = localCount; i < remoteCount; i++) {
+            addOnlyRemote(value);
+        }
+    }
+
+    /**
+     * 归并比较两个升序数组，重复的value按次数比较
+     *
+     * @param localValues
+     * @param remoteValues
+     */
+    private void compare(int[] localValues, int[] remoteValues) {
+        int i = 0;
+        int j = 0;
+        while (i < localValues.length || j < remoteValues.length) {
+            if (j == remoteValues.length || (i < localValues.length && localValues[i] < remoteValues[j])) {
+                addOnlyLocal(localValues[i++]);
+            } else if (i == localValues.length || localValues[i] > remoteValues[j]) {
+                addOnlyRemote(remoteValues[j++]);
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private void addOnlyLocal(int value) {
+        if (onlyLocalCount == onlyLocal.length) {
+            onlyLocal = Arrays.copyOf(onlyLocal, onlyLocalCount * 2);
+        }
+        onlyLocal[onlyLocalCount++] = value;
+    }
+
+    private void addOnlyRemote(int value) {
+        if (onlyRemoteCount == onlyRemote.length) {
+            onlyRemote = Arrays.copyOf(onlyRemote, onlyRemoteCount * 2);
+        }
+        onlyRemote[onlyRemoteCount++] = value;
+    }
+}